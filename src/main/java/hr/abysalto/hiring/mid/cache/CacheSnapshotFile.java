@@ -0,0 +1,159 @@
+package hr.abysalto.hiring.mid.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes snapshots of cache entries. All numbers are big-endian:
+ * <pre>
+ * int   magic "PCSN"
+ * int   format version
+ * long  creation time, epoch millis
+ * int   entry count
+ * entry count times:
+ *   short + bytes  cache name, UTF-8
+ *   long           load time of the value, epoch millis
+ *   int + bytes    key, JSON
+ *   int + bytes    value, JSON
+ * long  CRC32 of all preceding bytes
+ * </pre>
+ * Files are written to a temporary file that replaces the snapshot once complete, so a crash while
+ * writing leaves the previous snapshot intact. Files are read memory-mapped, and the keys and values
+ * are handed out as slices of the mapping rather than copies.
+ */
+public final class CacheSnapshotFile {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x5043534E;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    private static final int CHECKSUM_SIZE = 8;
+
+    private CacheSnapshotFile() {
+    }
+
+    public static void write(Path path, Instant createdAt, List<Entry> entries) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream file = Files.newOutputStream(temporary);
+                 CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 64 * 1024), crc);
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(createdAt.toEpochMilli());
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    byte[] cacheName = entry.cacheName().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(cacheName.length);
+                    out.write(cacheName);
+                    out.writeLong(entry.loadedAt().toEpochMilli());
+                    writeBytes(out, entry.key());
+                    writeBytes(out, entry.value());
+                }
+                out.flush();
+                // The checksum covers everything written so far and is not part of itself
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps the snapshot and returns its entries, which stay valid after the file is closed.
+     *
+     * @throws InvalidSnapshotException when the file is not a snapshot, has another format version
+     *                                  or fails its checksum
+     */
+    public static Snapshot read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE + CHECKSUM_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new InvalidSnapshotException("Unexpected size of " + channel.size() + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int contentSize = buffer.capacity() - CHECKSUM_SIZE;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new InvalidSnapshotException("Not a cache snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new InvalidSnapshotException("Unsupported format version " + version);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, contentSize));
+        if (crc.getValue() != buffer.getLong(contentSize)) {
+            throw new InvalidSnapshotException("Checksum mismatch");
+        }
+
+        try {
+            ByteBuffer content = buffer.slice(0, contentSize);
+            content.position(8);
+            Instant createdAt = Instant.ofEpochMilli(content.getLong());
+            int count = content.getInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] cacheName = new byte[Short.toUnsignedInt(content.getShort())];
+                content.get(cacheName);
+                Instant loadedAt = Instant.ofEpochMilli(content.getLong());
+                ByteBuffer key = readBytes(content);
+                ByteBuffer value = readBytes(content);
+                entries.add(new Entry(new String(cacheName, StandardCharsets.UTF_8), loadedAt, key, value));
+            }
+            return new Snapshot(createdAt, entries);
+        } catch (RuntimeException e) {
+            throw new InvalidSnapshotException("Malformed entries: " + e.getMessage());
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, ByteBuffer bytes) throws IOException {
+        ByteBuffer source = bytes.duplicate();
+        out.writeInt(source.remaining());
+        byte[] chunk = new byte[Math.min(source.remaining(), 8192)];
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    private static ByteBuffer readBytes(ByteBuffer content) {
+        int length = content.getInt();
+        ByteBuffer bytes = content.slice(content.position(), length);
+        content.position(content.position() + length);
+        return bytes;
+    }
+
+    public record Snapshot(Instant createdAt, List<Entry> entries) {
+    }
+
+    public record Entry(String cacheName, Instant loadedAt, ByteBuffer key, ByteBuffer value) {
+    }
+
+    public static class InvalidSnapshotException extends IOException {
+
+        public InvalidSnapshotException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package hr.abysalto.hiring.mid.cache;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, compact form of a product as it is kept in the product cache. Numbers are stored as
+ * primitives, with {@code NaN} or {@link Integer#MIN_VALUE} standing for a missing value; lists
+ * are arrays; dimensions and meta are stored inline. A product takes a few objects instead of the
+ * dozens of a {@link ProductDto} graph, and can be shared between threads without copying. It is
+ * passed around inside the application as it is and turned into a {@link ProductDto} only where a
+ * response is written, so the JSON shape is defined by the DTO alone.
+ */
+public final class CachedProduct {
+
+    private static final int MISSING = Integer.MIN_VALUE;
+    private static final byte HAS_DIMENSIONS = 1;
+    private static final byte HAS_META = 2;
+
+    private final long id;
+    private final String title;
+    private final String description;
+    private final String category;
+    private final double price;
+    private final double discountPercentage;
+    private final double rating;
+    private final int stock;
+    private final String[] tags;
+    private final String brand;
+    private final String sku;
+    private final double weight;
+    private final double width;
+    private final double height;
+    private final double depth;
+    private final String warrantyInformation;
+    private final String shippingInformation;
+    private final String availabilityStatus;
+    private final Review[] reviews;
+    private final String returnPolicy;
+    private final int minimumOrderQuantity;
+    private final String createdAt;
+    private final String updatedAt;
+    private final String barcode;
+    private final String qrCode;
+    private final String[] images;
+    private final String thumbnail;
+    private final byte flags;
+
+    private CachedProduct(ProductDto product, Review[] reviews) {
+        this.id = product.getId();
+        this.title = product.getTitle();
+        this.description = product.getDescription();
+        this.category = product.getCategory();
+        this.price = toDouble(product.getPrice());
+        this.discountPercentage = toDouble(product.getDiscountPercentage());
+        this.rating = toDouble(product.getRating());
+        this.stock = toInt(product.getStock());
+        this.tags = toArray(product.getTags());
+        this.brand = product.getBrand();
+        this.sku = product.getSku();
+        this.weight = toDouble(product.getWeight());
+        ProductDto.DimensionsDto dimensions = product.getDimensions();
+        this.width = dimensions != null ? toDouble(dimensions.getWidth()) : Double.NaN;
+        this.height = dimensions != null ? toDouble(dimensions.getHeight()) : Double.NaN;
+        this.depth = dimensions != null ? toDouble(dimensions.getDepth()) : Double.NaN;
+        this.warrantyInformation = product.getWarrantyInformation();
+        this.shippingInformation = product.getShippingInformation();
+        this.availabilityStatus = product.getAvailabilityStatus();
+        this.reviews = reviews;
+        this.returnPolicy = product.getReturnPolicy();
+        this.minimumOrderQuantity = toInt(product.getMinimumOrderQuantity());
+        ProductDto.MetaDto meta = product.getMeta();
+        this.createdAt = meta != null ? meta.getCreatedAt() : null;
+        this.updatedAt = meta != null ? meta.getUpdatedAt() : null;
+        this.barcode = meta != null ? meta.getBarcode() : null;
+        this.qrCode = meta != null ? meta.getQrCode() : null;
+        this.images = toArray(product.getImages());
+        this.thumbnail = product.getThumbnail();
+        this.flags = (byte) ((dimensions != null ? HAS_DIMENSIONS : 0) | (meta != null ? HAS_META : 0));
+    }
+
+    /**
+     * Copies the product, which must have an id, with its reviews already in compact form.
+     */
+    static CachedProduct of(ProductDto product, Review[] reviews) {
+        return new CachedProduct(product, reviews);
+    }
+
+    static Review review(ProductDto.ReviewDto review) {
+        return new Review(toInt(review.getRating()), review.getComment(), review.getDate(),
+                review.getReviewerName(), review.getReviewerEmail());
+    }
+
+    public long id() {
+        return id;
+    }
+
+    /**
+     * Returns a new DTO holding the values of this product. Its lists are read-only views of the
+     * cached arrays, so the cached product cannot be changed through it. The DTO remembers this
+     * product, so its load time, entity tag, kept JSON and staleness are those of this product.
+     */
+    public ProductDto toDto() {
+        return new View(this);
+    }
+
+    /**
+     * Returns the cached product a DTO was made from, or the value itself for any other value.
+     */
+    static Object sourceOf(Object value) {
+        return value instanceof View view ? view.source : value;
+    }
+
+    /**
+     * Estimated retained heap size, counting shared values as if they were not shared.
+     */
+    long estimateSize() {
+        long size = ProductSizeEstimator.CACHED_PRODUCT_SHALLOW
+                + ProductSizeEstimator.strings(tags) + ProductSizeEstimator.strings(images);
+        for (String value : new String[]{title, description, category, brand, sku, warrantyInformation,
+                shippingInformation, availabilityStatus, returnPolicy, createdAt, updatedAt, barcode, qrCode, thumbnail}) {
+            size += ProductSizeEstimator.string(value);
+        }
+        if (reviews != null) {
+            size += ProductSizeEstimator.array(reviews.length);
+            for (Review review : reviews) {
+                size += ProductSizeEstimator.CACHED_REVIEW_SHALLOW + ProductSizeEstimator.string(review.comment())
+                        + ProductSizeEstimator.string(review.date()) + ProductSizeEstimator.string(review.reviewerName())
+                        + ProductSizeEstimator.string(review.reviewerEmail());
+            }
+        }
+        return size;
+    }
+
+    private static double toDouble(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static int toInt(Integer value) {
+        return value != null ? value : MISSING;
+    }
+
+    private static Double toBoxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static Integer toBoxed(int value) {
+        return value == MISSING ? null : value;
+    }
+
+    private static String[] toArray(List<String> values) {
+        return values != null ? values.toArray(String[]::new) : null;
+    }
+
+    private static List<String> toList(String[] values) {
+        return values != null ? Collections.unmodifiableList(Arrays.asList(values)) : null;
+    }
+
+    /**
+     * DTO made from a cached product. It is written to JSON like any other {@link ProductDto}.
+     */
+    private static final class View extends ProductDto {
+
+        private final CachedProduct source;
+
+        private View(CachedProduct source) {
+            super(source.id, source.title, source.description, source.category, toBoxed(source.price),
+                    toBoxed(source.discountPercentage), toBoxed(source.rating), toBoxed(source.stock),
+                    toList(source.tags), source.brand, source.sku, toBoxed(source.weight),
+                    (source.flags & HAS_DIMENSIONS) != 0
+                            ? new DimensionsDto(toBoxed(source.width), toBoxed(source.height), toBoxed(source.depth))
+                            : null,
+                    source.warrantyInformation, source.shippingInformation, source.availabilityStatus,
+                    source.reviews != null ? Arrays.stream(source.reviews).map(Review::toDto).toList() : null,
+                    source.returnPolicy, toBoxed(source.minimumOrderQuantity),
+                    (source.flags & HAS_META) != 0
+                            ? new MetaDto(source.createdAt, source.updatedAt, source.barcode, source.qrCode)
+                            : null,
+                    toList(source.images), source.thumbnail);
+            this.source = source;
+        }
+    }
+
+    /**
+     * Immutable review of a cached product.
+     */
+    public record Review(int rating, String comment, String date, String reviewerName, String reviewerEmail) {
+
+        ProductDto.ReviewDto toDto() {
+            return new ProductDto.ReviewDto(toBoxed(rating), comment, date, reviewerName, reviewerEmail);
+        }
+    }
+}
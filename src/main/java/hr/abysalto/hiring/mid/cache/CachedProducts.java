@@ -0,0 +1,29 @@
+package hr.abysalto.hiring.mid.cache;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+
+import java.util.Objects;
+
+/**
+ * Converts the {@link ProductDto} received from DummyJSON into the {@link CachedProduct} kept in the
+ * product cache. Responses get the {@link CachedProduct#toDto() DTO} of the cached product, whose load
+ * time, entity tag, serialized forms and staleness are looked up by the cached instance.
+ */
+public class CachedProducts {
+
+    /**
+     * Copies an interned product into its compact form. The product is not referenced afterwards.
+     */
+    public CachedProduct compact(ProductDto product) {
+        if (product == null) {
+            return null;
+        }
+        CachedProduct.Review[] reviews = product.getReviews() != null
+                ? product.getReviews().stream()
+                        .filter(Objects::nonNull)
+                        .map(CachedProduct::review)
+                        .toArray(CachedProduct.Review[]::new)
+                : null;
+        return CachedProduct.of(product, reviews);
+    }
+}
@@ -0,0 +1,198 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Remembers, per cached value instance, when it was loaded, its entity tag and optionally its
+ * serialized JSON and gzipped JSON. Values are tracked by identity with weak keys, so everything
+ * kept for a value disappears together with its cache entry and a reloaded value always starts
+ * afresh. Values that were never registered as loaded are treated as loaded the first time they
+ * are seen, and their serialized forms are never kept. The kept bytes are not part of the weight
+ * of the caches holding the values; they have their own budget, and the bytes of the least
+ * recently used values are dropped beyond it and serialized again when next written. A DTO made
+ * from a {@link CachedProduct} stands for that product, and a cached product is serialized as its DTO.
+ */
+public class CachedRepresentations {
+
+    private final ObjectMapper objectMapper;
+    private final boolean keepSerialized;
+    private final Clock clock;
+    private final Cache<Object, Entry> entries = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+    private final Cache<Entry, Serialized> serialized;
+
+    /**
+     * @param keepSerialized   whether to keep the serialized JSON of cached values for reuse
+     * @param maximumKeptBytes budget of the kept JSON and gzipped JSON of all values together
+     */
+    public CachedRepresentations(ObjectMapper objectMapper, boolean keepSerialized, long maximumKeptBytes,
+                                 Clock clock) {
+        this.objectMapper = objectMapper;
+        this.keepSerialized = keepSerialized;
+        this.clock = clock;
+        // Keyed by the entry, so the kept bytes are dropped together with the value
+        this.serialized = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumWeight(keepSerialized ? maximumKeptBytes : 0)
+                .weigher((Entry entry, Serialized kept) -> kept.weight())
+                .build();
+    }
+
+    public void loaded(Object value) {
+        loaded(value, clock.instant());
+    }
+
+    /**
+     * Registers a value restored from a copy of an earlier load, keeping the time of that load.
+     */
+    public void loaded(Object value, Instant loadedAt) {
+        if (value != null) {
+            entries.put(value, new Entry(loadedAt, true));
+        }
+    }
+
+    public Instant loadedAt(Object value) {
+        return entry(value).loadedAt;
+    }
+
+    /**
+     * Whether the serialized forms of the value are kept, so writing them skips serialization.
+     */
+    public boolean keepsSerialized(Object value) {
+        return keepSerialized && isLoaded(value);
+    }
+
+    /**
+     * Whether the value was registered as loaded into a cache, as opposed to being built per request.
+     */
+    public boolean isLoaded(Object value) {
+        Entry entry = value != null ? entries.getIfPresent(CachedProduct.sourceOf(value)) : null;
+        return entry != null && entry.cached;
+    }
+
+    /**
+     * Returns the strong entity tag of the value, computing it only the first time it is asked for.
+     */
+    public String etag(Object value) {
+        Entry entry = entry(value);
+        String etag = entry.etag;
+        if (etag == null) {
+            etag = entityTag(json(value, entry));
+            entry.etag = etag;
+        }
+        return etag;
+    }
+
+    public byte[] json(Object value) {
+        return json(value, entry(value));
+    }
+
+    public byte[] gzip(Object value) {
+        Entry entry = entry(value);
+        Serialized kept = serialized.getIfPresent(entry);
+        if (kept != null && kept.gzip != null) {
+            return kept.gzip;
+        }
+        byte[] json = json(value, entry);
+        byte[] gzip = compress(json);
+        if (keepSerialized && entry.cached) {
+            serialized.put(entry, new Serialized(json, gzip));
+        }
+        return gzip;
+    }
+
+    /**
+     * Bytes currently kept for the serialized forms of all values.
+     */
+    public long keptBytes() {
+        serialized.cleanUp();
+        return serialized.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Returns a quoted tag made of the first 128 bits of the SHA-256 digest of the given bytes.
+     */
+    public static String entityTag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the tag of the gzipped form of a value with the given tag. Each encoding is a
+     * different representation, so it needs its own strong tag.
+     */
+    public static String gzipEntityTag(String entityTag) {
+        return entityTag.substring(0, entityTag.length() - 1) + "-gz\"";
+    }
+
+    private byte[] json(Object value, Entry entry) {
+        Serialized kept = serialized.getIfPresent(entry);
+        if (kept != null) {
+            return kept.json;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value instanceof CachedProduct product ? product.toDto() : value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+        if (keepSerialized && entry.cached) {
+            serialized.put(entry, new Serialized(json, null));
+        }
+        return json;
+    }
+
+    private Entry entry(Object value) {
+        return entries.get(CachedProduct.sourceOf(value), ignored -> new Entry(clock.instant(), false));
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static final class Entry {
+
+        private final Instant loadedAt;
+        private final boolean cached;
+        private volatile String etag;
+
+        private Entry(Instant loadedAt, boolean cached) {
+            this.loadedAt = loadedAt;
+            this.cached = cached;
+        }
+    }
+
+    private record Serialized(byte[] json, byte[] gzip) {
+
+        private static final int OVERHEAD = 64;
+
+        private int weight() {
+            return OVERHEAD + json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
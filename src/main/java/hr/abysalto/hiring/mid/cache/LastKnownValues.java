@@ -0,0 +1,77 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Keeps the last value loaded from the upstream for every product cache key, for longer than the
+ * caches themselves keep it, so it can still be served while the upstream is unavailable. Values
+ * served that way are marked stale by identity until they are replaced. The values are on the heap
+ * on top of the cache budgets as soon as their cache drops them, so the maximum weight is kept
+ * small; a value moved to the {@link OffHeapProductTier} is released here and kept there instead.
+ * A DTO made from a {@link CachedProduct} is stale when that product is.
+ */
+public class LastKnownValues {
+
+    private static final ProductWeigher WEIGHER = new ProductWeigher();
+
+    private final Cache<Key, Object> values;
+    private final Duration maximumStaleness;
+    private final Cache<Object, Boolean> staleValues = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    public LastKnownValues(long maximumWeight, Duration maximumStaleness) {
+        this.maximumStaleness = maximumStaleness;
+        this.values = Caffeine.newBuilder()
+                .expireAfterWrite(maximumStaleness)
+                .maximumWeight(maximumWeight)
+                .weigher((Key key, Object value) -> WEIGHER.weigh(key.key(), value))
+                .build();
+    }
+
+    public void put(String cacheName, Object key, Object value) {
+        if (value != null) {
+            values.put(new Key(cacheName, key), value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, Object key) {
+        return (T) values.getIfPresent(new Key(cacheName, key));
+    }
+
+    public void remove(String cacheName, Object key) {
+        values.invalidate(new Key(cacheName, key));
+    }
+
+    /**
+     * Drops the value kept for the key if it is still the given instance, because a copy of it is
+     * kept elsewhere from now on.
+     */
+    public void release(String cacheName, Object key, Object value) {
+        values.asMap().computeIfPresent(new Key(cacheName, key), (ignored, kept) -> kept == value ? null : kept);
+    }
+
+    public Duration maximumStaleness() {
+        return maximumStaleness;
+    }
+
+    public void markStale(Object value) {
+        staleValues.put(value, Boolean.TRUE);
+    }
+
+    public boolean isStale(Object value) {
+        return value != null && staleValues.getIfPresent(CachedProduct.sourceOf(value)) != null;
+    }
+
+    public void clear() {
+        values.invalidateAll();
+        staleValues.invalidateAll();
+    }
+
+    private record Key(String cacheName, Object key) {
+    }
+}
@@ -0,0 +1,40 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Expires cache entries a fixed time after their value was loaded rather than after it was put,
+ * so values restored from a snapshot or moved back from the off-heap tier keep the expiry of
+ * their original load. The load time is the one registered with {@link CachedRepresentations}.
+ */
+public class LoadTimeExpiry implements Expiry<Object, Object> {
+
+    private final CachedRepresentations cachedRepresentations;
+    private final Duration expireAfterLoad;
+    private final Clock clock;
+
+    public LoadTimeExpiry(CachedRepresentations cachedRepresentations, Duration expireAfterLoad, Clock clock) {
+        this.cachedRepresentations = cachedRepresentations;
+        this.expireAfterLoad = expireAfterLoad;
+        this.clock = clock;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        Duration age = Duration.between(cachedRepresentations.loadedAt(value), clock.instant());
+        return Math.max(expireAfterLoad.minus(age).toNanos(), 0);
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,154 @@
+package hr.abysalto.hiring.mid.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed amount of direct memory divided into equally sized blocks. Byte arrays are stored in as
+ * many blocks as they need, which do not have to be adjacent, so freed memory is reused without
+ * compaction. The memory is allocated once and never collected, so full GCs do not scan or move
+ * it; only the block indices of an allocation live on the heap.
+ */
+public class OffHeapArena {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final int blockSize;
+    private final int blocksPerSegment;
+    private final ByteBuffer[] segments;
+    private final int[] freeBlocks;
+    private int freeCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public OffHeapArena(long capacity, int blockSize) {
+        if (blockSize <= 0 || SEGMENT_SIZE % blockSize != 0) {
+            throw new IllegalArgumentException("Block size must divide " + SEGMENT_SIZE + ", got " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.blocksPerSegment = SEGMENT_SIZE / blockSize;
+        long blocks = capacity / blockSize;
+        if (blocks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Off-heap capacity of " + capacity + " bytes is too large");
+        }
+        this.freeBlocks = new int[(int) blocks];
+        this.segments = new ByteBuffer[(int) ((blocks + blocksPerSegment - 1) / blocksPerSegment)];
+        for (int segment = 0; segment < segments.length; segment++) {
+            long remaining = blocks - (long) segment * blocksPerSegment;
+            segments[segment] = ByteBuffer.allocateDirect((int) Math.min(remaining, blocksPerSegment) * blockSize);
+        }
+        for (int block = 0; block < freeBlocks.length; block++) {
+            freeBlocks[block] = freeBlocks.length - 1 - block;
+        }
+        this.freeCount = freeBlocks.length;
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public long capacity() {
+        return (long) freeBlocks.length * blockSize;
+    }
+
+    public long used() {
+        lock.readLock().lock();
+        try {
+            return (long) (freeBlocks.length - freeCount) * blockSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the bytes into free blocks.
+     *
+     * @return the allocation, or {@code null} when there are not enough free blocks
+     */
+    public Allocation store(byte[] bytes) {
+        int needed = Math.max(1, (bytes.length + blockSize - 1) / blockSize);
+        int[] blocks = new int[needed];
+        lock.writeLock().lock();
+        try {
+            if (freeCount < needed) {
+                return null;
+            }
+            for (int i = 0; i < needed; i++) {
+                blocks[i] = freeBlocks[--freeCount];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // The blocks are not reachable by anyone else until the allocation is returned
+        for (int i = 0, offset = 0; offset < bytes.length; i++, offset += blockSize) {
+            segment(blocks[i]).put(position(blocks[i]), bytes, offset, Math.min(blockSize, bytes.length - offset));
+        }
+        return new Allocation(blocks, bytes.length);
+    }
+
+    /**
+     * Copies the bytes of the allocation back to the heap.
+     *
+     * @return the bytes, or {@code null} when the allocation was freed in the meantime
+     */
+    public byte[] load(Allocation allocation) {
+        byte[] bytes = new byte[allocation.length];
+        lock.readLock().lock();
+        try {
+            if (allocation.freed) {
+                return null;
+            }
+            for (int i = 0, offset = 0; offset < bytes.length; i++, offset += blockSize) {
+                int block = allocation.blocks[i];
+                segment(block).get(position(block), bytes, offset, Math.min(blockSize, bytes.length - offset));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return bytes;
+    }
+
+    public void free(Allocation allocation) {
+        lock.writeLock().lock();
+        try {
+            if (allocation.freed) {
+                return;
+            }
+            allocation.freed = true;
+            for (int block : allocation.blocks) {
+                freeBlocks[freeCount++] = block;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ByteBuffer segment(int block) {
+        return segments[block / blocksPerSegment];
+    }
+
+    private int position(int block) {
+        return (block % blocksPerSegment) * blockSize;
+    }
+
+    /**
+     * Blocks holding one stored byte array.
+     */
+    public static final class Allocation {
+
+        private final int[] blocks;
+        private final int length;
+        private boolean freed;
+
+        private Allocation(int[] blocks, int length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+
+        /**
+         * Number of arena bytes the allocation occupies, including the unused end of its last block.
+         */
+        public long size(int blockSize) {
+            return (long) blocks.length * blockSize;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Second tier under the product caches. Values evicted from a cache for its memory budget are kept
+ * as deflated JSON in an {@link OffHeapArena} until they would have been refreshed, and are moved
+ * back to the cache and decoded when they are loaded again. Values live in one tier at a time.
+ * Only the index, a small entry per value, stays on the heap. A spilled value that was also the
+ * {@link LastKnownValues last known value} of its key is released there, and its copy here takes
+ * over that role for the rest of the maximum staleness, so it can still be served stale.
+ */
+@Slf4j
+public class OffHeapProductTier {
+
+    private final OffHeapArena arena;
+    private final ObjectMapper objectMapper;
+    private final CachedRepresentations cachedRepresentations;
+    private final ProductInterner productInterner;
+    private final CachedProducts cachedProducts;
+    private final LastKnownValues lastKnownValues;
+    private final Clock clock;
+    private final Cache<Key, Entry> entries;
+
+    /**
+     * @param arena {@code null} to disable the tier
+     */
+    public OffHeapProductTier(OffHeapArena arena, ObjectMapper objectMapper,
+                              CachedRepresentations cachedRepresentations, ProductInterner productInterner,
+                              CachedProducts cachedProducts, LastKnownValues lastKnownValues, Clock clock) {
+        this.arena = arena;
+        this.objectMapper = objectMapper;
+        this.cachedRepresentations = cachedRepresentations;
+        this.productInterner = productInterner;
+        this.cachedProducts = cachedProducts;
+        this.lastKnownValues = lastKnownValues;
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                // Evicting synchronously below the capacity leaves room in the arena for the next value
+                .maximumWeight(arena != null ? arena.capacity() - arena.capacity() / 8 : 0)
+                .weigher((Key key, Entry entry) -> (int) entry.allocation.size(arena.blockSize()))
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.timeToLive.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.timeToLive.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(Runnable::run)
+                .scheduler(Scheduler.systemScheduler())
+                .evictionListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        arena.free(entry.allocation);
+                    }
+                })
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return arena != null;
+    }
+
+    /**
+     * Keeps a value evicted from the cache for the rest of its refresh interval, or for the rest of
+     * its maximum staleness when it is the last known value of the key. Values past both, values
+     * that cannot be encoded and values that do not fit in the arena are dropped, and stale values
+     * are not kept again.
+     */
+    public void spill(String cacheName, Object key, Object value, Duration refreshAfterWrite) {
+        // A stale value is a copy of the last known value, which is still kept
+        if (arena == null || value == null || lastKnownValues.isStale(value)) {
+            return;
+        }
+        Instant loadedAt = cachedRepresentations.loadedAt(value);
+        Instant freshUntil = loadedAt.plus(refreshAfterWrite);
+        boolean lastKnown = lastKnownValues.get(cacheName, key) == value;
+        Instant keepUntil = lastKnown
+                ? max(freshUntil, loadedAt.plus(lastKnownValues.maximumStaleness()))
+                : freshUntil;
+        Duration timeToLive = Duration.between(clock.instant(), keepUntil);
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            return;
+        }
+        try {
+            OffHeapArena.Allocation allocation = arena.store(deflate(cachedRepresentations.json(value)));
+            if (allocation == null) {
+                log.debug("Off-heap product tier is full, dropping {} {}", cacheName, key);
+                return;
+            }
+            Entry replaced = entries.asMap().put(new Key(cacheName, key),
+                    new Entry(value.getClass(), allocation, loadedAt, freshUntil, lastKnown, timeToLive));
+            if (replaced != null) {
+                arena.free(replaced.allocation);
+            }
+            if (lastKnown) {
+                lastKnownValues.release(cacheName, key, value);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not move {} {} to the off-heap product tier", cacheName, key, e);
+        }
+    }
+
+    /**
+     * Removes the value kept for the key and decodes it, registering it with its original load time.
+     * A value past its refresh interval is left for {@link #lastKnown} and not returned.
+     *
+     * @return the value, or {@code null} when no value due before a refresh is kept
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T take(String cacheName, Object key) {
+        if (arena == null) {
+            return null;
+        }
+        Key entryKey = new Key(cacheName, key);
+        Entry entry = entries.getIfPresent(entryKey);
+        if (entry == null || !clock.instant().isBefore(entry.freshUntil)
+                || !entries.asMap().remove(entryKey, entry)) {
+            return null;
+        }
+        try {
+            Object value = decode(cacheName, key, entry);
+            if (value != null && entry.lastKnown) {
+                // Back in the cache, so the heap copy is the last known value again
+                lastKnownValues.put(cacheName, key, value);
+            }
+            return (T) value;
+        } finally {
+            arena.free(entry.allocation);
+        }
+    }
+
+    /**
+     * Decodes a copy of the value kept as the last known value of the key, leaving it in the tier.
+     *
+     * @return the copy, or {@code null} when no last known value is kept
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T lastKnown(String cacheName, Object key) {
+        if (arena == null) {
+            return null;
+        }
+        Entry entry = entries.getIfPresent(new Key(cacheName, key));
+        return entry != null && entry.lastKnown ? (T) decode(cacheName, key, entry) : null;
+    }
+
+    /**
+     * Drops whatever is kept for the key, once a newer value was loaded or the product is gone.
+     */
+    public void forget(String cacheName, Object key) {
+        if (arena == null) {
+            return;
+        }
+        Entry entry = entries.asMap().remove(new Key(cacheName, key));
+        if (entry != null) {
+            arena.free(entry.allocation);
+        }
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    public long usedBytes() {
+        return arena != null ? arena.used() : 0;
+    }
+
+    private Object decode(String cacheName, Object key, Entry entry) {
+        try {
+            byte[] deflated = arena.load(entry.allocation);
+            if (deflated == null) {
+                return null;
+            }
+            Object value = decode(inflate(deflated), entry.type);
+            cachedRepresentations.loaded(value, entry.loadedAt);
+            return value;
+        } catch (IOException e) {
+            log.warn("Could not decode {} {} from the off-heap product tier", cacheName, key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Cached products are kept as the JSON of their DTO and compacted again when decoded.
+     */
+    private Object decode(byte[] json, Class<?> type) throws IOException {
+        if (type == CachedProduct.class) {
+            return cachedProducts.compact(productInterner.intern(objectMapper.readValue(json, ProductDto.class)));
+        }
+        Object value = objectMapper.readValue(json, type);
+        if (value instanceof ProductDto product) {
+            return productInterner.intern(product);
+        }
+        if (value instanceof ProductsResponse response) {
+            return productInterner.intern(response);
+        }
+        return value;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return deflated.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes) throws IOException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private record Key(String cacheName, Object key) {
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record Entry(Class<?> type, OffHeapArena.Allocation allocation, Instant loadedAt, Instant freshUntil,
+                         boolean lastKnown, Duration timeToLive) {
+    }
+}
@@ -0,0 +1,41 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the background refreshes of a cache loader on the given pool. Caffeine's own executor is left
+ * for its maintenance work and removal listeners, so a full refresh queue only rejects refreshes.
+ * A rejected refresh keeps the current value and is retried on a later read.
+ */
+@RequiredArgsConstructor
+public class PooledRefreshCacheLoader implements CacheLoader<Object, Object> {
+
+    private final CacheLoader<Object, Object> loader;
+    private final Executor refreshExecutor;
+
+    @Override
+    public Object load(Object key) throws Exception {
+        return loader.load(key);
+    }
+
+    @Override
+    public Map<?, ?> loadAll(Set<?> keys) throws Exception {
+        return loader.loadAll(keys);
+    }
+
+    @Override
+    public Object reload(Object key, Object oldValue) throws Exception {
+        return loader.reload(key, oldValue);
+    }
+
+    @Override
+    public CompletableFuture<?> asyncReload(Object key, Object oldValue, Executor executor) throws Exception {
+        return loader.asyncReload(key, oldValue, refreshExecutor);
+    }
+}
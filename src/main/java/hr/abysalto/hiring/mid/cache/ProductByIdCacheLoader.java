@@ -0,0 +1,45 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import hr.abysalto.hiring.mid.exception.ProductNotFoundException;
+import hr.abysalto.hiring.mid.service.ProductLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RequiredArgsConstructor
+@Slf4j
+public class ProductByIdCacheLoader implements CacheLoader<Object, Object> {
+
+    private final ProductLoader productLoader;
+    private final CachedRepresentations cachedRepresentations;
+    private final OffHeapProductTier offHeapTier;
+    private final String cacheName;
+
+    /**
+     * Restores the product from the off-heap tier when it was moved there, otherwise requests it.
+     */
+    @Override
+    public Object load(Object key) {
+        Object kept = offHeapTier.take(cacheName, key);
+        return kept != null ? kept : fetch(key);
+    }
+
+    /**
+     * Drops the entry when the product was removed upstream since it was cached.
+     */
+    @Override
+    public Object reload(Object key, Object oldValue) {
+        log.debug("Refreshing cached product with id: {}", key);
+        try {
+            return fetch(key);
+        } catch (ProductNotFoundException e) {
+            return null;
+        }
+    }
+
+    private Object fetch(Object key) {
+        Object value = productLoader.loadProduct((Long) key);
+        cachedRepresentations.loaded(value);
+        return value;
+    }
+}
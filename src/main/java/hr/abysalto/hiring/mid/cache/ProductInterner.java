@@ -0,0 +1,73 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Replaces values that repeat across products with one shared instance before the products are
+ * cached: category, brand, tags, availability, policies, shipping and warranty texts and review
+ * comments and reviewer names. Values that are nearly unique per product, such as meta timestamps,
+ * QR codes, dimensions and review dates or e-mails, are left alone, as pooling them would only
+ * churn the pool. Only immutable values are pooled, so the mutable dimension and review DTOs are
+ * not shared; the product cache keeps dimensions inline and reviews as immutable records anyway.
+ * The pool is bounded and drops its least used values first, so a value falling out of the pool
+ * only stops being shared by products ingested later.
+ */
+public class ProductInterner {
+
+    private final Cache<Object, Object> pool;
+
+    /**
+     * @param maximumSize values kept in the pool, 0 to disable interning
+     */
+    public ProductInterner(long maximumSize) {
+        this.pool = maximumSize > 0 ? Caffeine.newBuilder().maximumSize(maximumSize).build() : null;
+    }
+
+    public ProductsResponse intern(ProductsResponse response) {
+        if (pool != null && response != null && response.getProducts() != null) {
+            response.getProducts().forEach(this::intern);
+        }
+        return response;
+    }
+
+    public ProductDto intern(ProductDto product) {
+        if (pool == null || product == null) {
+            return product;
+        }
+        product.setCategory(canonical(product.getCategory()));
+        product.setBrand(canonical(product.getBrand()));
+        product.setTags(canonical(strings(product.getTags())));
+        product.setWarrantyInformation(canonical(product.getWarrantyInformation()));
+        product.setShippingInformation(canonical(product.getShippingInformation()));
+        product.setAvailabilityStatus(canonical(product.getAvailabilityStatus()));
+        product.setReturnPolicy(canonical(product.getReturnPolicy()));
+        if (product.getReviews() != null) {
+            product.getReviews().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(review -> {
+                        review.setComment(canonical(review.getComment()));
+                        review.setReviewerName(canonical(review.getReviewerName()));
+                    });
+        }
+        return product;
+    }
+
+    public long size() {
+        return pool != null ? pool.estimatedSize() : 0;
+    }
+
+    private List<String> strings(List<String> values) {
+        return values != null ? values.stream().map(this::canonical).toList() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T canonical(T value) {
+        return value != null ? (T) pool.get(value, ignored -> value) : null;
+    }
+}
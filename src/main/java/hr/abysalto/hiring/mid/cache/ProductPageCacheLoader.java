@@ -0,0 +1,37 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import hr.abysalto.hiring.mid.service.ProductLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPageCacheLoader implements CacheLoader<Object, Object> {
+
+    private final ProductLoader productLoader;
+    private final CachedRepresentations cachedRepresentations;
+    private final OffHeapProductTier offHeapTier;
+    private final String cacheName;
+
+    /**
+     * Restores the page from the off-heap tier when it was moved there, otherwise requests it.
+     */
+    @Override
+    public Object load(Object key) {
+        Object kept = offHeapTier.take(cacheName, key);
+        return kept != null ? kept : fetch(key);
+    }
+
+    @Override
+    public Object reload(Object key, Object oldValue) {
+        log.debug("Refreshing cached product page: {}", key);
+        return fetch(key);
+    }
+
+    private Object fetch(Object key) {
+        Object value = productLoader.loadProducts((ProductPageKey) key);
+        cachedRepresentations.loaded(value);
+        return value;
+    }
+}
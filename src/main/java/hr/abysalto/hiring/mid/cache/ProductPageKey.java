@@ -0,0 +1,26 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Cache key of a product listing page. Keeping the query parameters structured lets the cache
+ * reload a page in the background without having to parse a string key.
+ */
+public record ProductPageKey(Integer limit, Integer skip, String sortBy, String order) {
+
+    public static final ProductPageKey DEFAULT = new ProductPageKey(null, null, null, null);
+
+    public static ProductPageKey of(Integer limit, Integer skip, String sortBy, String order) {
+        return new ProductPageKey(limit, skip, sortBy, order);
+    }
+
+    @JsonIgnore
+    public boolean isDefault() {
+        return DEFAULT.equals(this);
+    }
+
+    @Override
+    public String toString() {
+        return "products_" + limit + "_" + skip + "_" + sortBy + "_" + order;
+    }
+}
@@ -0,0 +1,126 @@
+package hr.abysalto.hiring.mid.cache;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+
+import java.util.List;
+
+/**
+ * Estimates the retained heap size of cached product objects, assuming a 64-bit JVM with
+ * compressed references and compact strings. The numbers are approximations meant for cache
+ * weighing, not exact measurements.
+ */
+public final class ProductSizeEstimator {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    private static final int BOXED_NUMBER = 16;
+    private static final int STRING_SHALLOW = 24;
+    private static final int ARRAY_LIST_SHALLOW = 24;
+
+    private static final int PRODUCT_SHALLOW = align(OBJECT_HEADER + 22 * REFERENCE);
+    private static final int DIMENSIONS_SIZE = align(OBJECT_HEADER + 3 * REFERENCE) + 3 * BOXED_NUMBER;
+    private static final int REVIEW_SHALLOW = align(OBJECT_HEADER + 5 * REFERENCE);
+    private static final int META_SHALLOW = align(OBJECT_HEADER + 4 * REFERENCE);
+    private static final int PRODUCT_SUMMARY_SHALLOW = align(OBJECT_HEADER + 4 * REFERENCE);
+    // One long, seven doubles, two ints, a byte and 17 references
+    static final int CACHED_PRODUCT_SHALLOW = align(OBJECT_HEADER + 8 + 7 * 8 + 2 * 4 + 1 + 17 * REFERENCE);
+    static final int CACHED_REVIEW_SHALLOW = align(OBJECT_HEADER + 4 + 4 * REFERENCE);
+    private static final int PRODUCTS_RESPONSE_SHALLOW = align(OBJECT_HEADER + 4 * REFERENCE) + 3 * BOXED_NUMBER;
+
+    private ProductSizeEstimator() {
+    }
+
+    public static long estimate(ProductsResponse response) {
+        long size = PRODUCTS_RESPONSE_SHALLOW;
+        List<ProductDto> products = response.getProducts();
+        if (products != null) {
+            size += list(products.size());
+            for (ProductDto product : products) {
+                size += estimate(product);
+            }
+        }
+        return size;
+    }
+
+    public static long estimate(ProductDto product) {
+        long size = PRODUCT_SHALLOW;
+        size += boxed(product.getId()) + boxed(product.getPrice()) + boxed(product.getDiscountPercentage())
+                + boxed(product.getRating()) + boxed(product.getStock()) + boxed(product.getWeight())
+                + boxed(product.getMinimumOrderQuantity());
+        size += string(product.getTitle()) + string(product.getDescription()) + string(product.getCategory())
+                + string(product.getBrand()) + string(product.getSku()) + string(product.getWarrantyInformation())
+                + string(product.getShippingInformation()) + string(product.getAvailabilityStatus())
+                + string(product.getReturnPolicy()) + string(product.getThumbnail());
+        size += strings(product.getTags()) + strings(product.getImages());
+        if (product.getDimensions() != null) {
+            size += DIMENSIONS_SIZE;
+        }
+        if (product.getReviews() != null) {
+            size += list(product.getReviews().size());
+            for (ProductDto.ReviewDto review : product.getReviews()) {
+                size += REVIEW_SHALLOW + boxed(review.getRating()) + string(review.getComment())
+                        + string(review.getDate()) + string(review.getReviewerName()) + string(review.getReviewerEmail());
+            }
+        }
+        ProductDto.MetaDto meta = product.getMeta();
+        if (meta != null) {
+            size += META_SHALLOW + string(meta.getCreatedAt()) + string(meta.getUpdatedAt())
+                    + string(meta.getBarcode()) + string(meta.getQrCode());
+        }
+        return size;
+    }
+
+    public static long estimate(CachedProduct product) {
+        return product.estimateSize();
+    }
+
+    public static long estimate(ProductSummaryDto summary) {
+        return PRODUCT_SUMMARY_SHALLOW + boxed(summary.getId()) + boxed(summary.getPrice())
+                + string(summary.getTitle()) + string(summary.getThumbnail());
+    }
+
+    private static long strings(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long size = list(values.size());
+        for (String value : values) {
+            size += string(value);
+        }
+        return size;
+    }
+
+    static long strings(String[] values) {
+        if (values == null) {
+            return 0;
+        }
+        long size = array(values.length);
+        for (String value : values) {
+            size += string(value);
+        }
+        return size;
+    }
+
+    static long array(int length) {
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    static long string(String value) {
+        return value == null ? 0 : STRING_SHALLOW + align(ARRAY_HEADER + value.length());
+    }
+
+    private static long boxed(Object value) {
+        return value == null ? 0 : BOXED_NUMBER;
+    }
+
+    private static long list(int size) {
+        return ARRAY_LIST_SHALLOW + align(ARRAY_HEADER + (long) size * REFERENCE);
+    }
+
+    private static int align(long size) {
+        return (int) ((size + 7) & ~7L);
+    }
+}
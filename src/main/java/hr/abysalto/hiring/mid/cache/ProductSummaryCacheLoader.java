@@ -0,0 +1,35 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import hr.abysalto.hiring.mid.exception.ProductNotFoundException;
+import hr.abysalto.hiring.mid.service.ProductLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSummaryCacheLoader implements CacheLoader<Object, Object> {
+
+    private final ProductLoader productLoader;
+    private final CachedRepresentations cachedRepresentations;
+
+    @Override
+    public Object load(Object key) {
+        Object value = productLoader.loadProductSummary((Long) key);
+        cachedRepresentations.loaded(value);
+        return value;
+    }
+
+    /**
+     * Drops the entry when the product was removed upstream since it was cached.
+     */
+    @Override
+    public Object reload(Object key, Object oldValue) {
+        log.debug("Refreshing cached product summary with id: {}", key);
+        try {
+            return load(key);
+        } catch (ProductNotFoundException e) {
+            return null;
+        }
+    }
+}
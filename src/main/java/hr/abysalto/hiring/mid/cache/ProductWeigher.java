@@ -0,0 +1,30 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+
+/**
+ * Weighs cache entries by the estimated retained heap size of their value in bytes, so that a
+ * cache's maximum weight is its memory budget.
+ */
+public class ProductWeigher implements Weigher<Object, Object> {
+
+    private static final int KEY_AND_ENTRY_OVERHEAD = 96;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long size = KEY_AND_ENTRY_OVERHEAD;
+        if (value instanceof ProductsResponse response) {
+            size += ProductSizeEstimator.estimate(response);
+        } else if (value instanceof ProductDto product) {
+            size += ProductSizeEstimator.estimate(product);
+        } else if (value instanceof CachedProduct product) {
+            size += ProductSizeEstimator.estimate(product);
+        } else if (value instanceof ProductSummaryDto summary) {
+            size += ProductSizeEstimator.estimate(summary);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+}
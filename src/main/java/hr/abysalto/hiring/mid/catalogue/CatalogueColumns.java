@@ -0,0 +1,216 @@
+package hr.abysalto.hiring.mid.catalogue;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductFacets;
+import hr.abysalto.hiring.mid.dto.ProductFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Columnar view of a catalogue used for filtering and facet counts. Prices are kept in a sorted
+ * primitive array for range lookups, and every category, brand and availability status has a
+ * bitset of the catalogue positions holding it, so filters are bitwise ANDs and facet counts are
+ * population counts.
+ */
+final class CatalogueColumns {
+
+    private final int size;
+    private final double[] sortedPrices;
+    private final int[] priceOrder;
+    private final Dimension categories;
+    private final Dimension brands;
+    private final Dimension availabilityStatuses;
+
+    private CatalogueColumns(int size, double[] sortedPrices, int[] priceOrder, Dimension categories,
+                             Dimension brands, Dimension availabilityStatuses) {
+        this.size = size;
+        this.sortedPrices = sortedPrices;
+        this.priceOrder = priceOrder;
+        this.categories = categories;
+        this.brands = brands;
+        this.availabilityStatuses = availabilityStatuses;
+    }
+
+    /**
+     * @param priceOrder catalogue positions in ascending price order, products without a price last
+     */
+    static CatalogueColumns of(ProductDto[] products, int[] priceOrder) {
+        int priced = 0;
+        while (priced < priceOrder.length && products[priceOrder[priced]].getPrice() != null) {
+            priced++;
+        }
+        double[] sortedPrices = new double[priced];
+        for (int i = 0; i < priced; i++) {
+            sortedPrices[i] = products[priceOrder[i]].getPrice();
+        }
+
+        return new CatalogueColumns(products.length, sortedPrices, priceOrder,
+                Dimension.of(products, ProductDto::getCategory),
+                Dimension.of(products, ProductDto::getBrand),
+                Dimension.of(products, ProductDto::getAvailabilityStatus));
+    }
+
+    /**
+     * Returns the bitset of catalogue positions matching every part of the filter.
+     */
+    long[] matching(ProductFilter filter) {
+        long[] categoryMask = categories.select(filter.getCategories());
+        long[] brandMask = brands.select(filter.getBrands());
+        long[] statusMask = availabilityStatuses.select(filter.getAvailabilityStatuses());
+        long[] priceMask = selectPrices(filter.getMinPrice(), filter.getMaxPrice());
+        return and(categoryMask, brandMask, statusMask, priceMask);
+    }
+
+    ProductFacets facets(ProductFilter filter) {
+        long[] categoryMask = categories.select(filter.getCategories());
+        long[] brandMask = brands.select(filter.getBrands());
+        long[] statusMask = availabilityStatuses.select(filter.getAvailabilityStatuses());
+        long[] priceMask = selectPrices(filter.getMinPrice(), filter.getMaxPrice());
+
+        return ProductFacets.builder()
+                .categories(categories.counts(and(brandMask, statusMask, priceMask)))
+                .brands(brands.counts(and(categoryMask, statusMask, priceMask)))
+                .availabilityStatuses(availabilityStatuses.counts(and(categoryMask, brandMask, priceMask)))
+                .build();
+    }
+
+    private long[] selectPrices(Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        int from = minPrice != null ? firstAtLeast(minPrice) : 0;
+        int to = maxPrice != null ? firstAbove(maxPrice) : sortedPrices.length;
+
+        long[] mask = new long[words(size)];
+        for (int i = from; i < to; i++) {
+            int position = priceOrder[i];
+            mask[position >>> 6] |= 1L << position;
+        }
+        return mask;
+    }
+
+    private int firstAtLeast(double price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedPrices[middle] < price) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int firstAbove(double price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedPrices[middle] <= price) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * ANDs the given masks, where {@code null} stands for every position.
+     */
+    private long[] and(long[]... masks) {
+        long[] result = new long[words(size)];
+        Arrays.fill(result, -1L);
+        if (size % 64 != 0) {
+            result[result.length - 1] = (1L << size) - 1;
+        }
+        for (long[] mask : masks) {
+            if (mask != null) {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] &= mask[i];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * One filterable column: its distinct values and a bitset of positions per value.
+     */
+    private static final class Dimension {
+
+        private final int words;
+        private final Map<String, long[]> bitsByValue;
+
+        private Dimension(int words, Map<String, long[]> bitsByValue) {
+            this.words = words;
+            this.bitsByValue = bitsByValue;
+        }
+
+        static Dimension of(ProductDto[] products, Function<ProductDto, String> column) {
+            int words = words(products.length);
+            Map<String, long[]> bitsByValue = new TreeMap<>();
+            for (int position = 0; position < products.length; position++) {
+                String value = column.apply(products[position]);
+                if (value != null) {
+                    long[] bits = bitsByValue.computeIfAbsent(value, ignored -> new long[words]);
+                    bits[position >>> 6] |= 1L << position;
+                }
+            }
+            return new Dimension(words, bitsByValue);
+        }
+
+        /**
+         * ORs the bitsets of the selected values, or returns {@code null} when nothing is selected.
+         */
+        long[] select(List<String> values) {
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            long[] mask = new long[words];
+            for (String value : values) {
+                long[] bits = bitsByValue.get(value);
+                if (bits != null) {
+                    for (int i = 0; i < words; i++) {
+                        mask[i] |= bits[i];
+                    }
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * Counts the positions of every value within the mask, largest count first.
+         */
+        Map<String, Integer> counts(long[] mask) {
+            List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+            bitsByValue.forEach((value, bits) -> {
+                int count = 0;
+                for (int i = 0; i < bits.length; i++) {
+                    count += Long.bitCount(bits[i] & mask[i]);
+                }
+                if (count > 0) {
+                    counts.add(Map.entry(value, count));
+                }
+            });
+            counts.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+
+            Map<String, Integer> result = new LinkedHashMap<>();
+            counts.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+            return result;
+        }
+    }
+}
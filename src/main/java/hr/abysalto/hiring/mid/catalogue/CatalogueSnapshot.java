@@ -0,0 +1,172 @@
+package hr.abysalto.hiring.mid.catalogue;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductFacets;
+import hr.abysalto.hiring.mid.dto.ProductFilter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable in-memory copy of the whole product catalogue. For every supported sort field the
+ * snapshot keeps the product positions presorted in ascending order, so any page in any order is
+ * a slice of an index array and costs only as much as the page size.
+ */
+public final class CatalogueSnapshot {
+
+    private static final Map<String, Comparator<ProductDto>> SORT_ORDERS = Map.ofEntries(
+            sortOrder("id", ProductDto::getId),
+            sortOrder("title", ProductDto::getTitle),
+            sortOrder("category", ProductDto::getCategory),
+            sortOrder("brand", ProductDto::getBrand),
+            sortOrder("sku", ProductDto::getSku),
+            sortOrder("price", ProductDto::getPrice),
+            sortOrder("discountPercentage", ProductDto::getDiscountPercentage),
+            sortOrder("rating", ProductDto::getRating),
+            sortOrder("stock", ProductDto::getStock),
+            sortOrder("weight", ProductDto::getWeight),
+            sortOrder("availabilityStatus", ProductDto::getAvailabilityStatus),
+            sortOrder("minimumOrderQuantity", ProductDto::getMinimumOrderQuantity)
+    );
+
+    private final ProductDto[] products;
+    private final Map<Long, Integer> positionsById;
+    private final Map<String, int[]> ascendingOrders;
+    private final ProductSearchIndex searchIndex;
+    private final CatalogueColumns columns;
+    private final Instant createdAt;
+
+    private CatalogueSnapshot(ProductDto[] products, Map<Long, Integer> positionsById, Map<String, int[]> ascendingOrders,
+                              ProductSearchIndex searchIndex, CatalogueColumns columns, Instant createdAt) {
+        this.products = products;
+        this.positionsById = positionsById;
+        this.ascendingOrders = ascendingOrders;
+        this.searchIndex = searchIndex;
+        this.columns = columns;
+        this.createdAt = createdAt;
+    }
+
+    public static CatalogueSnapshot of(List<ProductDto> catalogue) {
+        return of(catalogue, null);
+    }
+
+    /**
+     * Builds a snapshot of the given catalogue, reusing the search analysis of products that did not
+     * change since the previous snapshot.
+     */
+    public static CatalogueSnapshot of(List<ProductDto> catalogue, CatalogueSnapshot previous) {
+        ProductDto[] products = catalogue.toArray(ProductDto[]::new);
+
+        Map<Long, Integer> positionsById = new HashMap<>(products.length * 2);
+        for (int i = 0; i < products.length; i++) {
+            positionsById.put(products[i].getId(), i);
+        }
+
+        Map<String, int[]> ascendingOrders = new HashMap<>();
+        SORT_ORDERS.forEach((field, comparator) -> ascendingOrders.put(field, IntStream.range(0, products.length)
+                .boxed()
+                .sorted((left, right) -> comparator.compare(products[left], products[right]))
+                .mapToInt(Integer::intValue)
+                .toArray()));
+
+        ProductSearchIndex searchIndex = ProductSearchIndex.build(products, previous != null ? previous.searchIndex : null);
+        CatalogueColumns columns = CatalogueColumns.of(products, ascendingOrders.get("price"));
+
+        return new CatalogueSnapshot(products, Collections.unmodifiableMap(positionsById),
+                Collections.unmodifiableMap(ascendingOrders), searchIndex, columns, Instant.now());
+    }
+
+    public static boolean supportsSort(String sortBy) {
+        return sortBy == null || SORT_ORDERS.containsKey(sortBy);
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public ProductDto findById(Long productId) {
+        Integer position = positionsById.get(productId);
+        return position != null ? products[position] : null;
+    }
+
+    /**
+     * Returns {@code limit} products starting at {@code skip} in the requested order. Without a
+     * sort field the catalogue order is used. A limit of 0 returns everything after {@code skip}.
+     */
+    public List<ProductDto> page(int skip, int limit, String sortBy, boolean descending) {
+        int[] order = sortBy != null ? ascendingOrders.get(sortBy) : null;
+        int total = products.length;
+        int from = Math.min(Math.max(skip, 0), total);
+        int to = limit <= 0 ? total : (int) Math.min((long) from + limit, total);
+
+        List<ProductDto> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            if (order == null) {
+                page.add(products[i]);
+            } else {
+                page.add(products[order[descending ? total - 1 - i : i]]);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Returns one page of the products matching the filter in the requested order, together with the
+     * number of matches and the facet counts for the filter.
+     */
+    public FilteredPage filter(ProductFilter filter, int skip, int limit, String sortBy, boolean descending) {
+        long[] matching = columns.matching(filter);
+        int total = 0;
+        for (long word : matching) {
+            total += Long.bitCount(word);
+        }
+
+        int[] order = sortBy != null ? ascendingOrders.get(sortBy) : null;
+        int from = Math.max(skip, 0);
+        int to = limit <= 0 ? total : (int) Math.min((long) from + limit, total);
+        List<ProductDto> page = new ArrayList<>(Math.max(to - from, 0));
+        int seen = 0;
+        for (int i = 0; i < products.length && seen < to; i++) {
+            int position = order == null ? i : order[descending ? products.length - 1 - i : i];
+            if ((matching[position >>> 6] & 1L << position) != 0 && seen++ >= from) {
+                page.add(products[position]);
+            }
+        }
+        return new FilteredPage(page, total, columns.facets(filter));
+    }
+
+    /**
+     * Returns {@code limit} of the products matching the query starting at {@code skip}, best match
+     * first, together with the number of matches. A limit of 0 returns everything after {@code skip}.
+     */
+    public SearchPage search(String query, int skip, int limit) {
+        ProductSearchIndex.Hits hits = searchIndex.search(query, skip, limit);
+        List<ProductDto> page = new ArrayList<>(hits.positions().length);
+        for (int position : hits.positions()) {
+            page.add(products[position]);
+        }
+        return new SearchPage(page, hits.total());
+    }
+
+    public record FilteredPage(List<ProductDto> products, int total, ProductFacets facets) {
+    }
+
+    public record SearchPage(List<ProductDto> products, int total) {
+    }
+
+    private static <T extends Comparable<? super T>> Map.Entry<String, Comparator<ProductDto>> sortOrder(
+            String field, Function<ProductDto, T> property) {
+        return Map.entry(field, Comparator.comparing(property, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+}
@@ -0,0 +1,385 @@
+package hr.abysalto.hiring.mid.catalogue;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable inverted index over the title, description, brand, category and tags of a catalogue.
+ * Every term maps to a posting list of catalogue positions with a per-position weight, both kept
+ * in primitive arrays. Terms are stored sorted, so the last query token can be matched as a prefix
+ * while the user is still typing. A query only touches the posting lists of its terms, and a prefix
+ * expands to a bounded number of them, so its cost follows the number of matches rather than the
+ * size of the catalogue. Only the matches up to the requested page are ranked.
+ */
+public final class ProductSearchIndex {
+
+    private static final float TITLE_WEIGHT = 4f;
+    private static final float BRAND_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 32;
+
+    private final Map<Long, Document> documentsById;
+    private final String[] terms;
+    private final int[][] postings;
+    private final float[][] weights;
+
+    private ProductSearchIndex(Map<Long, Document> documentsById, String[] terms, int[][] postings,
+                               float[][] weights) {
+        this.documentsById = documentsById;
+        this.terms = terms;
+        this.postings = postings;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds the index for the given catalogue. Products whose indexed fields are equal to those
+     * in the previous index reuse their analyzed terms, so only new and modified products are
+     * tokenized again.
+     */
+    public static ProductSearchIndex build(ProductDto[] products, ProductSearchIndex previous) {
+        Map<Long, Document> documentsById = new HashMap<>(products.length * 2);
+        Document[] documents = new Document[products.length];
+        Map<String, Integer> postingSizes = new HashMap<>();
+        for (int position = 0; position < products.length; position++) {
+            ProductDto product = products[position];
+            Document document = previous != null ? previous.documentsById.get(product.getId()) : null;
+            if (document == null || !document.indexes(product)) {
+                document = Document.analyze(product);
+            }
+            documents[position] = document;
+            documentsById.put(product.getId(), document);
+            for (String term : document.terms()) {
+                postingSizes.merge(term, 1, Integer::sum);
+            }
+        }
+
+        String[] terms = postingSizes.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        int[][] postings = new int[terms.length][];
+        float[][] weights = new float[terms.length][];
+        Map<String, Integer> termIndexes = new HashMap<>(terms.length * 2);
+        for (int i = 0; i < terms.length; i++) {
+            termIndexes.put(terms[i], i);
+            postings[i] = new int[postingSizes.get(terms[i])];
+            weights[i] = new float[postings[i].length];
+        }
+
+        int[] filled = new int[terms.length];
+        for (int position = 0; position < documents.length; position++) {
+            Document document = documents[position];
+            for (int i = 0; i < document.terms().length; i++) {
+                int termIndex = termIndexes.get(document.terms()[i]);
+                postings[termIndex][filled[termIndex]] = position;
+                weights[termIndex][filled[termIndex]++] = document.weights()[i];
+            }
+        }
+        return new ProductSearchIndex(documentsById, terms, postings, weights);
+    }
+
+    /**
+     * Returns one page of the catalogue positions of products matching every query token, best match
+     * first, together with the number of matches. The last token also matches up to
+     * {@value #MAX_PREFIX_TERMS} of the most frequent terms it is a prefix of, once it is
+     * {@value #MIN_PREFIX_LENGTH} characters long. Only the best {@code skip + limit} matches are
+     * ranked; a limit of 0 ranks them all.
+     */
+    public Hits search(String query, int skip, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Hits.NONE;
+        }
+
+        Matches matches = null;
+        for (int token = 0; token < tokens.size(); token++) {
+            String value = tokens.get(token);
+            int from = lowerBound(value);
+            boolean prefix = token == tokens.size() - 1 && value.length() >= MIN_PREFIX_LENGTH;
+            int to = prefix ? prefixUpperBound(value, from) : exactUpperBound(value, from);
+            Matches tokenMatches = matches(mostFrequent(from, to));
+            matches = matches == null ? tokenMatches : matches.intersect(tokenMatches);
+            if (matches.size == 0) {
+                return Hits.NONE;
+            }
+        }
+
+        int offset = Math.max(skip, 0);
+        int ranked = limit <= 0 ? matches.size : (int) Math.min((long) offset + limit, matches.size);
+        long[] best = best(matches, ranked);
+        int[] positions = new int[Math.max(best.length - offset, 0)];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (int) best[offset + i];
+        }
+        return new Hits(positions, matches.size);
+    }
+
+    /**
+     * The {@code count} best matches, best first, each as its rank in the upper and its position in
+     * the lower half of a long. They are kept in a bounded max-heap, so ranking costs
+     * {@code log(count)} per match instead of sorting every match.
+     */
+    private static long[] best(Matches matches, int count) {
+        long[] heap = new long[count];
+        int size = 0;
+        for (int i = 0; i < matches.size && count > 0; i++) {
+            // Positive float bits sort like the floats themselves; inverting them puts the best score first
+            long rank = Integer.MAX_VALUE - Float.floatToIntBits(matches.scores[i]);
+            long ranked = rank << 32 | matches.positions[i];
+            if (size < count) {
+                heap[size] = ranked;
+                siftUp(heap, size++);
+            } else if (ranked < heap[0]) {
+                heap[0] = ranked;
+                siftDown(heap, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        return size == count ? heap : Arrays.copyOf(heap, size);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent] >= heap[index]) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left] > heap[largest]) {
+                largest = left;
+            }
+            if (right < size && heap[right] > heap[largest]) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(heap, index, largest);
+            index = largest;
+        }
+    }
+
+    private static void swap(long[] values, int i, int j) {
+        long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    /**
+     * Indexes of the terms in the given range, limited to the {@value #MAX_PREFIX_TERMS} terms with
+     * the longest posting lists, so a short prefix does not expand to most of the index.
+     */
+    private int[] mostFrequent(int from, int to) {
+        if (to - from <= MAX_PREFIX_TERMS) {
+            return IntStream.range(from, to).toArray();
+        }
+        PriorityQueue<Integer> mostFrequent = new PriorityQueue<>(
+                Comparator.comparingInt((Integer termIndex) -> postings[termIndex].length));
+        for (int termIndex = from; termIndex < to; termIndex++) {
+            mostFrequent.offer(termIndex);
+            if (mostFrequent.size() > MAX_PREFIX_TERMS) {
+                mostFrequent.poll();
+            }
+        }
+        return mostFrequent.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Positions and summed weights of the products having any of the given terms. A single posting
+     * list is used as it is, several are merged by position. Posting lists are already sorted by
+     * position, so they are merged through a heap over their heads instead of being sorted again.
+     */
+    private Matches matches(int[] termIndexes) {
+        if (termIndexes.length == 0) {
+            return new Matches(new int[0], new float[0], 0);
+        }
+        if (termIndexes.length == 1) {
+            int termIndex = termIndexes[0];
+            return new Matches(postings[termIndex], weights[termIndex], postings[termIndex].length);
+        }
+        long total = 0;
+        for (int termIndex : termIndexes) {
+            total += postings[termIndex].length;
+        }
+        int capacity = (int) Math.min(total, documentsById.size());
+        int[] positions = new int[capacity];
+        float[] scores = new float[capacity];
+        int size = 0;
+
+        int[] heads = new int[termIndexes.length];
+        PriorityQueue<Integer> next = new PriorityQueue<>(termIndexes.length,
+                Comparator.comparingInt((Integer list) -> postings[termIndexes[list]][heads[list]]));
+        for (int list = 0; list < termIndexes.length; list++) {
+            if (postings[termIndexes[list]].length > 0) {
+                next.offer(list);
+            }
+        }
+        while (!next.isEmpty()) {
+            int list = next.poll();
+            int termIndex = termIndexes[list];
+            int position = postings[termIndex][heads[list]];
+            float weight = weights[termIndex][heads[list]];
+            if (size > 0 && positions[size - 1] == position) {
+                scores[size - 1] += weight;
+            } else {
+                positions[size] = position;
+                scores[size++] = weight;
+            }
+            if (++heads[list] < postings[termIndex].length) {
+                next.offer(list);
+            }
+        }
+        return new Matches(positions, scores, size);
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    private int lowerBound(String value) {
+        int index = Arrays.binarySearch(terms, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int exactUpperBound(String value, int from) {
+        return from < terms.length && terms[from].equals(value) ? from + 1 : from;
+    }
+
+    private int prefixUpperBound(String prefix, int from) {
+        int to = from;
+        while (to < terms.length && terms[to].startsWith(prefix)) {
+            to++;
+        }
+        return to;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean wordCharacter = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (wordCharacter && start < 0) {
+                start = i;
+            } else if (!wordCharacter && start >= 0) {
+                tokens.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * One page of matching catalogue positions, best match first, and the number of all matches.
+     */
+    public record Hits(int[] positions, int total) {
+
+        static final Hits NONE = new Hits(new int[0], 0);
+    }
+
+    /**
+     * Products matching the query tokens seen so far, sorted by position, with their summed weights.
+     */
+    private record Matches(int[] positions, float[] scores, int size) {
+
+        Matches intersect(Matches other) {
+            int[] intersection = new int[Math.min(size, other.size)];
+            float[] summed = new float[intersection.length];
+            int matched = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (positions[i] < other.positions[j]) {
+                    i++;
+                } else if (positions[i] > other.positions[j]) {
+                    j++;
+                } else {
+                    intersection[matched] = positions[i];
+                    summed[matched++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new Matches(intersection, summed, matched);
+        }
+    }
+
+    /**
+     * Analyzed form of one product: its distinct terms, the summed field weight of each term and the
+     * indexed fields they were analyzed from. Only those field values are referenced, not the
+     * product, so an index does not keep the rest of the catalogue it was built from alive.
+     */
+    private record Document(String[] fields, String[] terms, float[] weights) {
+
+        /**
+         * Whether the indexed fields of the product are equal to those this document was analyzed
+         * from. Unchanged products usually share the very same strings, so this rarely compares
+         * more than references, and unlike a hash it never mistakes a modified product for an
+         * unchanged one.
+         */
+        boolean indexes(ProductDto product) {
+            return Arrays.equals(fields, fields(product));
+        }
+
+        private static String[] fields(ProductDto product) {
+            List<String> tags = product.getTags() != null ? product.getTags() : List.of();
+            String[] fields = new String[4 + tags.size()];
+            fields[0] = product.getTitle();
+            fields[1] = product.getBrand();
+            fields[2] = product.getCategory();
+            fields[3] = product.getDescription();
+            for (int i = 0; i < tags.size(); i++) {
+                fields[4 + i] = tags.get(i);
+            }
+            return fields;
+        }
+
+        static Document analyze(ProductDto product) {
+            Map<String, Float> termWeights = new HashMap<>();
+            addField(termWeights, product.getTitle(), TITLE_WEIGHT);
+            addField(termWeights, product.getBrand(), BRAND_WEIGHT);
+            addField(termWeights, product.getCategory(), CATEGORY_WEIGHT);
+            if (product.getTags() != null) {
+                product.getTags().stream()
+                        .filter(Objects::nonNull)
+                        .forEach(tag -> addField(termWeights, tag, TAG_WEIGHT));
+            }
+            addField(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+            String[] terms = termWeights.keySet().toArray(String[]::new);
+            float[] weights = new float[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                weights[i] = termWeights.get(terms[i]);
+            }
+            return new Document(fields(product), terms, weights);
+        }
+
+        private static void addField(Map<String, Float> termWeights, String text, float weight) {
+            for (String token : tokenize(text)) {
+                termWeights.merge(token, weight, Float::sum);
+            }
+        }
+    }
+}
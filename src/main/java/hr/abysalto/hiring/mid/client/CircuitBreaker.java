@@ -0,0 +1,153 @@
+package hr.abysalto.hiring.mid.client;
+
+import hr.abysalto.hiring.mid.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling an upstream that keeps failing. After {@code failureThreshold} consecutive failed
+ * calls the circuit opens and calls are rejected immediately with
+ * {@link UpstreamUnavailableException} for {@code openDuration}. Then a single trial call is let
+ * through: if it succeeds the circuit closes again, otherwise it stays open for another period.
+ * Only connection problems, timeouts, 5xx and 429 responses count as failures; any other answer,
+ * including 404, shows that the upstream is healthy.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+    private final Counter rejected;
+
+    private volatile State state = State.CLOSED;
+    private volatile Instant openedAt = Instant.EPOCH;
+    private volatile int consecutiveFailures;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+        this.rejected = Counter.builder("product.upstream.circuit.rejected")
+                .description("Upstream calls rejected because the circuit was open")
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("product.upstream.circuit.open", this, breaker -> breaker.state == State.CLOSED ? 0 : 1)
+                .description("Whether the circuit to the upstream is open")
+                .tag("upstream", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the exception shows that the upstream is unavailable rather than that it answered.
+     */
+    public static boolean isUpstreamFailure(Throwable e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests
+                || e instanceof UpstreamUnavailableException;
+    }
+
+    public <T> T call(Supplier<T> call) {
+        acquirePermission();
+        T value;
+        try {
+            value = call.get();
+        } catch (UpstreamUnavailableException e) {
+            onNotAttempted();
+            throw e;
+        } catch (RuntimeException e) {
+            if (isUpstreamFailure(e)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            throw e;
+        } catch (Throwable e) {
+            // An Error says nothing about the upstream, but a trial call must not keep its slot forever
+            onFailure();
+            throw e;
+        }
+        onSuccess();
+        return value;
+    }
+
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    public synchronized void reset() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    private void acquirePermission() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        synchronized (this) {
+            Duration remaining = openDuration.minus(Duration.between(openedAt, clock.instant()));
+            if (state == State.OPEN && (remaining.isNegative() || remaining.isZero())) {
+                // This caller is the trial, everyone else is rejected until it finishes
+                state = State.HALF_OPEN;
+                return;
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            rejected.increment();
+            throw new UpstreamUnavailableException("Upstream " + name + " is unavailable",
+                    remaining.isNegative() || remaining.isZero() ? openDuration : remaining);
+        }
+    }
+
+    private void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (state != State.CLOSED) {
+                log.info("Circuit to {} closed after a successful call", name);
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+    }
+
+    /**
+     * The call was rejected before it reached the upstream, for example by a rate limit, so it says
+     * nothing about the upstream. A trial call that did not happen lets the next call be the trial.
+     */
+    private synchronized void onNotAttempted() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("Circuit to {} opened after {} consecutive failures, rejecting calls for {}",
+                    name, consecutiveFailures, openDuration);
+            openedAt = clock.instant();
+            state = State.OPEN;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hr.abysalto.hiring.mid.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to DummyJSON. The circuit breaker decides whether a call is attempted at all, so an
+ * open circuit does not use up the governor's budget; the governor then decides when it may run.
+ */
+@Component
+@RequiredArgsConstructor
+public class DummyJsonCalls {
+
+    private final CircuitBreaker dummyJsonCircuitBreaker;
+    private final OutboundGovernor dummyJsonGovernor;
+
+    public <T> T call(Supplier<T> call) {
+        return dummyJsonCircuitBreaker.call(() -> dummyJsonGovernor.call(call));
+    }
+}
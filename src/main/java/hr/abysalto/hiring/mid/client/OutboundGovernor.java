@@ -0,0 +1,217 @@
+package hr.abysalto.hiring.mid.client;
+
+import hr.abysalto.hiring.mid.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limits outbound calls to an upstream with a concurrency bulkhead and a token bucket. A call runs
+ * once a concurrency permit and a token are available. Otherwise it waits in a bounded queue, where
+ * interactive calls are served before background calls and calls of the same priority in arrival
+ * order. A call that finds the queue full or waits longer than the maximum wait of its priority is
+ * rejected with {@link UpstreamUnavailableException}.
+ */
+public class OutboundGovernor {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final double tokensPerNano;
+    private final double burst;
+    private final int queueCapacity;
+    private final Map<OutboundPriority, Duration> maxWait;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> waiting = new PriorityQueue<>();
+    private final Map<OutboundPriority, Integer> waitingByPriority = new EnumMap<>(OutboundPriority.class);
+    private int inFlight;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long sequence;
+
+    private final Map<OutboundPriority, Counter> queueFullRejections = new EnumMap<>(OutboundPriority.class);
+    private final Map<OutboundPriority, Counter> timeoutRejections = new EnumMap<>(OutboundPriority.class);
+    private final Map<OutboundPriority, Timer> waits = new EnumMap<>(OutboundPriority.class);
+
+    /**
+     * @param ratePerSecond tokens added per second, 0 or less for no rate limit
+     * @param burst         tokens the bucket holds, i.e. calls that may start at once after a quiet period
+     */
+    public OutboundGovernor(String name, int maxConcurrent, double ratePerSecond, int burst, int queueCapacity,
+                            Map<OutboundPriority, Duration> maxWait, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.tokensPerNano = ratePerSecond > 0 ? ratePerSecond / TimeUnit.SECONDS.toNanos(1) : 0;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.queueCapacity = queueCapacity;
+        this.maxWait = new EnumMap<>(maxWait);
+
+        Gauge.builder("product.upstream.governor.in-flight", this, governor -> governor.inFlight)
+                .description("Outbound calls currently running")
+                .tag("upstream", name)
+                .register(meterRegistry);
+        for (OutboundPriority priority : OutboundPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            waitingByPriority.put(priority, 0);
+            Gauge.builder("product.upstream.governor.queued", this, governor -> governor.queued(priority))
+                    .description("Outbound calls waiting for a permit or a token")
+                    .tag("upstream", name)
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            queueFullRejections.put(priority, rejections(meterRegistry, tag, "queue-full"));
+            timeoutRejections.put(priority, rejections(meterRegistry, tag, "timeout"));
+            waits.put(priority, Timer.builder("product.upstream.governor.wait")
+                    .description("Time outbound calls waited before running")
+                    .tag("upstream", name)
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Runs the call with the priority of the current thread once the governor lets it through.
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire(OutboundPriority.current());
+        try {
+            return call.get();
+        } finally {
+            release();
+        }
+    }
+
+    private void acquire(OutboundPriority priority) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            refill(start);
+            if (waiting.isEmpty() && tryTake()) {
+                waits.get(priority).record(0, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (waiting.size() >= queueCapacity) {
+                queueFullRejections.get(priority).increment();
+                throw rejected("queue is full");
+            }
+
+            Waiter waiter = new Waiter(priority, sequence++);
+            enqueue(waiter);
+            long deadline = start + maxWait.get(priority).toNanos();
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+                    if (waiting.peek() == waiter && tryTake()) {
+                        waits.get(priority).record(now - start, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        timeoutRejections.get(priority).increment();
+                        throw rejected("no permit within " + maxWait.get(priority));
+                    }
+                    // Tokens are refilled by time, not by a signal, so wait at most until the next one
+                    changed.awaitNanos(inFlight < maxConcurrent && tokensPerNano > 0 && tokens < 1
+                            ? Math.min(remaining, nanosUntilToken())
+                            : remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw rejected("interrupted while waiting");
+            } finally {
+                dequeue(waiter);
+                // The next waiter may be able to run now, or has become the head of the queue
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryTake() {
+        if (inFlight >= maxConcurrent || (tokensPerNano > 0 && tokens < 1)) {
+            return false;
+        }
+        inFlight++;
+        if (tokensPerNano > 0) {
+            tokens--;
+        }
+        return true;
+    }
+
+    private void refill(long now) {
+        if (tokensPerNano > 0) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        }
+        refilledAt = now;
+    }
+
+    private long nanosUntilToken() {
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+    private void enqueue(Waiter waiter) {
+        waiting.add(waiter);
+        waitingByPriority.merge(waiter.priority(), 1, Integer::sum);
+    }
+
+    private void dequeue(Waiter waiter) {
+        if (waiting.remove(waiter)) {
+            waitingByPriority.merge(waiter.priority(), -1, Integer::sum);
+        }
+    }
+
+    private int queued(OutboundPriority priority) {
+        lock.lock();
+        try {
+            return waitingByPriority.get(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UpstreamUnavailableException rejected(String reason) {
+        return new UpstreamUnavailableException("Outbound calls to " + name + " are saturated, " + reason,
+                Duration.ofSeconds(1));
+    }
+
+    private Counter rejections(MeterRegistry meterRegistry, String priority, String reason) {
+        return Counter.builder("product.upstream.governor.rejected")
+                .description("Outbound calls rejected by the governor")
+                .tag("upstream", name)
+                .tag("priority", priority)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record Waiter(OutboundPriority priority, long sequence) implements Comparable<Waiter> {
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
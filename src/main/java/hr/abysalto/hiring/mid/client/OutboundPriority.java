@@ -0,0 +1,55 @@
+package hr.abysalto.hiring.mid.client;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority class of outbound calls made by the current thread. Calls are interactive unless the
+ * thread runs background work such as cache refreshes, catalogue synchronization or warm-up.
+ */
+public enum OutboundPriority {
+
+    INTERACTIVE,
+    BACKGROUND;
+
+    private static final ThreadLocal<OutboundPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static OutboundPriority current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(OutboundPriority priority, Supplier<T> call) {
+        OutboundPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void runAs(OutboundPriority priority, Runnable task) {
+        callAs(priority, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs tasks with the priority of the thread that submitted them.
+     */
+    public static TaskDecorator propagating() {
+        return task -> {
+            OutboundPriority priority = current();
+            return () -> runAs(priority, task);
+        };
+    }
+
+    /**
+     * Runs tasks with the given priority, whoever submitted them.
+     */
+    public static TaskDecorator fixed(OutboundPriority priority) {
+        return task -> () -> runAs(priority, task);
+    }
+}
@@ -1,6 +1,7 @@
 package hr.abysalto.hiring.mid.client;
 
 import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
 import hr.abysalto.hiring.mid.dto.ProductsResponse;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -29,5 +30,11 @@ public interface ProductClient {
 
     @GetExchange("/{productId}")
     ProductDto getProductById(@PathVariable Long productId);
+
+    @GetExchange("/{productId}")
+    ProductSummaryDto getProductSummaryById(
+            @PathVariable Long productId,
+            @RequestParam("select") String select
+    );
 }
 
@@ -0,0 +1,61 @@
+package hr.abysalto.hiring.mid.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Requests product pages from DummyJSON and hands the unread response body to the caller, so a page
+ * can be parsed incrementally instead of being bound to a {@code ProductsResponse} first.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductStreamClient {
+
+    private final RestClient dummyJsonRestClient;
+
+    public <T> T getAllProducts(int limit, int skip, String sortBy, String order, BodyReader<T> reader) {
+        // A URI template rather than a built URI, so the request is observed under its template
+        StringBuilder uriTemplate = new StringBuilder("/products?limit={limit}&skip={skip}");
+        Map<String, Object> uriVariables = new HashMap<>();
+        uriVariables.put("limit", limit);
+        uriVariables.put("skip", skip);
+        if (sortBy != null) {
+            uriTemplate.append("&sortBy={sortBy}");
+            uriVariables.put("sortBy", sortBy);
+        }
+        if (order != null) {
+            uriTemplate.append("&order={order}");
+            uriVariables.put("order", order);
+        }
+        return dummyJsonRestClient.get()
+                .uri(uriTemplate.toString(), uriVariables)
+                .exchange((request, response) -> {
+                    // The same exception types as retrieve(), so the circuit breaker tells 5xx and 429 apart
+                    if (response.getStatusCode().is5xxServerError()) {
+                        throw HttpServerErrorException.create(response.getStatusCode(), response.getStatusText(),
+                                response.getHeaders(), null, null);
+                    }
+                    if (response.getStatusCode().is4xxClientError()) {
+                        throw HttpClientErrorException.create(response.getStatusCode(), response.getStatusText(),
+                                response.getHeaders(), null, null);
+                    }
+                    try (InputStream body = response.getBody()) {
+                        return reader.read(body);
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+
+        T read(InputStream body) throws IOException;
+    }
+}
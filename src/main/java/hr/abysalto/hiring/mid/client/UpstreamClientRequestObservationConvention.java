@@ -0,0 +1,24 @@
+package hr.abysalto.hiring.mid.client;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+
+/**
+ * Tags the {@code http.client.requests} observations of an upstream's RestClient with the name of
+ * the upstream, next to Spring's HTTP method, URI template, status, outcome and exception tags.
+ * Every client method has its own URI template, so the {@code uri} tag tells the calls apart.
+ */
+public class UpstreamClientRequestObservationConvention extends DefaultClientRequestObservationConvention {
+
+    private final String upstream;
+
+    public UpstreamClientRequestObservationConvention(String upstream) {
+        this.upstream = upstream;
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ClientRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and("upstream", upstream);
+    }
+}
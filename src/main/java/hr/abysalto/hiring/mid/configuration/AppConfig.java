@@ -2,9 +2,15 @@ package hr.abysalto.hiring.mid.configuration;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.dto.ProductDto;
 import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 
 @Configuration
 public class AppConfig {
@@ -14,6 +20,18 @@ public class AppConfig {
         return builder -> {
             builder.featuresToDisable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
             builder.serializationInclusion(JsonInclude.Include.NON_NULL);
+            builder.filters(new SimpleFilterProvider()
+                    .addFilter(ProductDto.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
         };
     }
+
+    /**
+     * Replaces Boot's default JSON converter so cached product values can be written from their
+     * kept serialized form.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper, CachedRepresentations cachedRepresentations, ProductCacheProperties cacheProperties) {
+        return new CachedJsonHttpMessageConverter(objectMapper, cachedRepresentations, cacheProperties.serialized().gzip());
+    }
 }
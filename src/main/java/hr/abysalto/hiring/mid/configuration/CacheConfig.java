@@ -1,28 +1,199 @@
 package hr.abysalto.hiring.mid.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import hr.abysalto.hiring.mid.cache.CachedProducts;
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.cache.LastKnownValues;
+import hr.abysalto.hiring.mid.cache.LoadTimeExpiry;
+import hr.abysalto.hiring.mid.cache.OffHeapArena;
+import hr.abysalto.hiring.mid.cache.OffHeapProductTier;
+import hr.abysalto.hiring.mid.cache.PooledRefreshCacheLoader;
+import hr.abysalto.hiring.mid.cache.ProductByIdCacheLoader;
+import hr.abysalto.hiring.mid.cache.ProductInterner;
+import hr.abysalto.hiring.mid.cache.ProductPageCacheLoader;
+import hr.abysalto.hiring.mid.cache.ProductSummaryCacheLoader;
+import hr.abysalto.hiring.mid.cache.ProductWeigher;
+import hr.abysalto.hiring.mid.service.ProductLoader;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(ProductCacheProperties.class)
 public class CacheConfig {
 
     public static final String PRODUCTS_CACHE = "products";
     public static final String PRODUCT_BY_ID_CACHE = "productById";
+    public static final String PRODUCT_SUMMARY_BY_ID_CACHE = "productSummaryById";
+    public static final String PRODUCT_NOT_FOUND_CACHE = "productNotFound";
 
+    /**
+     * Load time, entity tag and optionally the serialized JSON of every cached product value.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTS_CACHE, PRODUCT_BY_ID_CACHE);
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .maximumSize(100));
+    public CachedRepresentations cachedRepresentations(ObjectMapper objectMapper, ProductCacheProperties properties) {
+        ProductCacheProperties.Serialized serialized = properties.serialized();
+        return new CachedRepresentations(objectMapper, serialized.enabled(), serialized.maximumWeight().toBytes(),
+                Clock.systemUTC());
+    }
+
+    /**
+     * Last known product values, kept only when serving stale values is enabled.
+     */
+    @Bean
+    public LastKnownValues lastKnownValues(ProductCacheProperties properties) {
+        ProductCacheProperties.Stale stale = properties.stale();
+        return new LastKnownValues(stale.enabled() ? stale.maximumWeight().toBytes() : 0, stale.maximumStaleness());
+    }
+
+    /**
+     * Pool of values shared by the cached products, empty when interning is disabled.
+     */
+    @Bean
+    public ProductInterner productInterner(ProductCacheProperties properties) {
+        ProductCacheProperties.Intern intern = properties.intern();
+        return new ProductInterner(intern.enabled() ? intern.maximumSize() : 0);
+    }
+
+    /**
+     * Conversion between product DTOs and the compact products kept in the productById cache.
+     */
+    @Bean
+    public CachedProducts cachedProducts() {
+        return new CachedProducts();
+    }
+
+    /**
+     * Off-heap tier under the products and productById caches, without an arena when it is disabled.
+     */
+    @Bean
+    public OffHeapProductTier offHeapProductTier(ObjectMapper objectMapper, CachedRepresentations cachedRepresentations,
+                                                 ProductInterner productInterner, CachedProducts cachedProducts,
+                                                 LastKnownValues lastKnownValues, ProductCacheProperties properties) {
+        ProductCacheProperties.OffHeap offHeap = properties.offHeap();
+        OffHeapArena arena = offHeap.enabled()
+                ? new OffHeapArena(offHeap.maximumSize().toBytes(), (int) offHeap.blockSize().toBytes())
+                : null;
+        return new OffHeapProductTier(arena, objectMapper, cachedRepresentations, productInterner, cachedProducts,
+                lastKnownValues, Clock.systemUTC());
+    }
+
+    /**
+     * Each product cache has its own memory budget and expiry. Entries older than the refresh
+     * interval are reloaded on the refresh pool on their next read, while readers keep getting the
+     * current value. Entries that are not read at all expire the hard expiry after their value was
+     * loaded, not after it was put, so restored values do not live longer. Ids that DummyJSON
+     * answered with 404 are remembered for a short time so that repeated lookups of removed
+     * products do not reach the upstream. With the off-heap tier enabled, products and pages
+     * evicted for the memory budget move there instead of being dropped. The productById cache
+     * holds {@link hr.abysalto.hiring.mid.cache.CachedProduct compact products}.
+     */
+    @Bean
+    public CacheManager cacheManager(ProductCacheProperties properties,
+                                     ProductLoader productLoader,
+                                     CachedRepresentations cachedRepresentations,
+                                     OffHeapProductTier offHeapTier,
+                                     @Qualifier(ExecutorConfig.PRODUCT_REFRESH_EXECUTOR) Executor productRefreshExecutor) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(PRODUCTS_CACHE,
+                spilling(caffeine(PRODUCTS_CACHE, properties.products(), cachedRepresentations),
+                        PRODUCTS_CACHE, properties.products(), offHeapTier)
+                        .build(new PooledRefreshCacheLoader(new ProductPageCacheLoader(productLoader,
+                                cachedRepresentations, offHeapTier, PRODUCTS_CACHE), productRefreshExecutor)));
+        cacheManager.registerCustomCache(PRODUCT_BY_ID_CACHE,
+                spilling(caffeine(PRODUCT_BY_ID_CACHE, properties.productById(), cachedRepresentations),
+                        PRODUCT_BY_ID_CACHE, properties.productById(), offHeapTier)
+                        .build(new PooledRefreshCacheLoader(new ProductByIdCacheLoader(productLoader,
+                                cachedRepresentations, offHeapTier, PRODUCT_BY_ID_CACHE), productRefreshExecutor)));
+        cacheManager.registerCustomCache(PRODUCT_SUMMARY_BY_ID_CACHE,
+                caffeine(PRODUCT_SUMMARY_BY_ID_CACHE, properties.productSummaryById(), cachedRepresentations)
+                        .build(new PooledRefreshCacheLoader(new ProductSummaryCacheLoader(productLoader,
+                                cachedRepresentations), productRefreshExecutor)));
+        cacheManager.registerCustomCache(PRODUCT_NOT_FOUND_CACHE, Caffeine.newBuilder()
+                .recordStats()
+                .expireAfterWrite(properties.notFound().ttl())
+                .maximumSize(properties.notFound().maximumSize())
+                .build());
         return cacheManager;
     }
-}
 
+    /**
+     * Spring Boot publishes the statistics of every cache as {@code cache.gets}, {@code cache.puts},
+     * {@code cache.evictions}, {@code cache.size} and {@code cache.load.*}. This adds the hit ratio of
+     * each cache, the bytes of kept serialized values and the size of the off-heap tier.
+     */
+    @Bean
+    public MeterBinder productCacheMetrics(ObjectProvider<CacheManager> cacheManagers, OffHeapProductTier offHeapTier,
+                                           CachedRepresentations cachedRepresentations,
+                                           ProductCacheProperties properties) {
+        return meterRegistry -> {
+            cacheManagers.forEach(cacheManager -> {
+                for (String name : cacheManager.getCacheNames()) {
+                    if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                        Gauge.builder("product.cache.hit-ratio", cache.getNativeCache(),
+                                        nativeCache -> nativeCache.stats().hitRate())
+                                .description("Share of cache lookups that found a value")
+                                .tag("cache", name)
+                                .register(meterRegistry);
+                    }
+                }
+            });
+            if (properties.serialized().enabled()) {
+                Gauge.builder("product.cache.serialized.used", cachedRepresentations, CachedRepresentations::keptBytes)
+                        .description("Heap taken by the kept serialized JSON of cached values")
+                        .baseUnit("bytes")
+                        .register(meterRegistry);
+            }
+            if (offHeapTier.isEnabled()) {
+                Gauge.builder("product.cache.offheap.size", offHeapTier, OffHeapProductTier::size)
+                        .description("Values kept in the off-heap product tier")
+                        .register(meterRegistry);
+                Gauge.builder("product.cache.offheap.used", offHeapTier, OffHeapProductTier::usedBytes)
+                        .description("Off-heap memory taken by kept values")
+                        .baseUnit("bytes")
+                        .register(meterRegistry);
+            }
+        };
+    }
+
+    private Caffeine<Object, Object> caffeine(String name, ProductCacheProperties.Spec spec,
+                                              CachedRepresentations cachedRepresentations) {
+        if (spec.refreshAfterWrite().compareTo(spec.expireAfterWrite()) >= 0) {
+            throw new IllegalStateException("Refresh interval of cache " + name + " must be shorter than its expiry");
+        }
+        return Caffeine.newBuilder()
+                .recordStats()
+                .refreshAfterWrite(spec.refreshAfterWrite())
+                .expireAfter(new LoadTimeExpiry(cachedRepresentations, spec.expireAfterWrite(), Clock.systemUTC()))
+                .maximumWeight(spec.maximumWeight().toBytes())
+                .weigher(new ProductWeigher());
+    }
+
+    private Caffeine<Object, Object> spilling(Caffeine<Object, Object> caffeine, String name,
+                                              ProductCacheProperties.Spec spec, OffHeapProductTier offHeapTier) {
+        if (!offHeapTier.isEnabled()) {
+            return caffeine;
+        }
+        return caffeine.evictionListener((key, value, cause) -> {
+            if (cause == RemovalCause.SIZE) {
+                offHeapTier.spill(name, key, value, spec.refreshAfterWrite());
+            }
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter that writes the kept serialized form of cached products and product pages
+ * instead of serializing them again, and their gzipped form when enabled and the client accepts
+ * gzip. The gzipped form carries its own entity tag, see {@link CachedRepresentations#gzipEntityTag}.
+ * Projections, views and anything that is not a cached value go through Jackson as usual.
+ * Bodies the request asks to be tagged are serialized into a buffer first; the entity tag is the
+ * digest of those bytes, and a matching {@code If-None-Match} is answered with 304.
+ */
+public class CachedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    /**
+     * Request attribute asking for the written body to be tagged.
+     */
+    public static final String TAG_BODY_ATTRIBUTE = CachedJsonHttpMessageConverter.class.getName() + ".TAG_BODY";
+
+    private final CachedRepresentations cachedRepresentations;
+    private final boolean gzip;
+
+    public CachedJsonHttpMessageConverter(ObjectMapper objectMapper, CachedRepresentations cachedRepresentations,
+                                          boolean gzip) {
+        super(objectMapper);
+        this.cachedRepresentations = cachedRepresentations;
+        this.gzip = gzip;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getRequest().getAttribute(TAG_BODY_ATTRIBUTE) != null) {
+            writeTagged(object, type, outputMessage, attributes);
+            return;
+        }
+        Object value = object;
+        if (object instanceof MappingJacksonValue container) {
+            value = container.getFilters() == null && container.getSerializationView() == null
+                    ? container.getValue()
+                    : null;
+        }
+        if (!(value instanceof ProductDto || value instanceof ProductsResponse)
+                || getJsonEncoding(outputMessage.getHeaders().getContentType()) != JsonEncoding.UTF8
+                || !cachedRepresentations.keepsSerialized(value)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        HttpHeaders headers = outputMessage.getHeaders();
+        byte[] body;
+        if (gzip) {
+            if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+        if (gzip && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && acceptsGzip(attributes.getRequest())) {
+            body = cachedRepresentations.gzip(value);
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            body = cachedRepresentations.json(value);
+        }
+        headers.setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    private void writeTagged(Object object, Type type, HttpOutputMessage outputMessage,
+                             ServletRequestAttributes attributes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        byte[] body = buffer.toByteArray();
+        ServletWebRequest webRequest = new ServletWebRequest(attributes.getRequest(), attributes.getResponse());
+        if (webRequest.checkNotModified(CachedRepresentations.entityTag(body))) {
+            return;
+        }
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    /**
+     * Whether a kept value is written gzipped to this request when gzip is enabled.
+     */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+}
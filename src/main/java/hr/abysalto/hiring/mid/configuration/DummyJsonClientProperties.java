@@ -0,0 +1,71 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the HTTP client calling DummyJSON, bound from {@code dummyjson.client}. The timeouts,
+ * the circuit breaker and the governor apply to every client type; the pool settings only to the
+ * pooled client.
+ */
+@ConfigurationProperties("dummyjson.client")
+public record DummyJsonClientProperties(
+        @DefaultValue("jdk") Type type,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("5s") Duration readTimeout,
+        @DefaultValue Jdk jdk,
+        @DefaultValue Pool pool,
+        @DefaultValue CircuitBreaker circuitBreaker,
+        @DefaultValue Governor governor
+) {
+
+    public enum Type {
+        /**
+         * JDK {@code HttpClient}, multiplexing requests over one HTTP/2 connection when the server
+         * negotiates it and falling back to HTTP/1.1 otherwise.
+         */
+        JDK,
+        /**
+         * Apache HttpClient with a bounded HTTP/1.1 connection pool whose usage is published as metrics.
+         */
+        POOLED
+    }
+
+    public record Jdk(
+            @DefaultValue("true") boolean http2
+    ) {
+    }
+
+    public record CircuitBreaker(
+            @DefaultValue("5") int failureThreshold,
+            @DefaultValue("30s") Duration openDuration
+    ) {
+    }
+
+    /**
+     * Limits on outbound calls: at most max-concurrent at once and rate-per-second on average with
+     * bursts of up to burst calls. Calls that cannot run wait in a queue of queue-capacity for up to
+     * the max wait of their priority.
+     */
+    public record Governor(
+            @DefaultValue("10") int maxConcurrent,
+            @DefaultValue("25") double ratePerSecond,
+            @DefaultValue("50") int burst,
+            @DefaultValue("100") int queueCapacity,
+            @DefaultValue("2s") Duration interactiveMaxWait,
+            @DefaultValue("30s") Duration backgroundMaxWait
+    ) {
+    }
+
+    public record Pool(
+            @DefaultValue("50") int maxConnections,
+            @DefaultValue("20") int maxConnectionsPerRoute,
+            @DefaultValue("1s") Duration connectionRequestTimeout,
+            @DefaultValue("30s") Duration idleTimeout,
+            @DefaultValue("5m") Duration timeToLive,
+            @DefaultValue("2s") Duration validateAfterInactivity
+    ) {
+    }
+}
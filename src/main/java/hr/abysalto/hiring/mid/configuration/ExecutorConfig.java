@@ -0,0 +1,83 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import hr.abysalto.hiring.mid.client.OutboundPriority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    public static final String PRODUCT_LOOKUP_EXECUTOR = "productLookupExecutor";
+    public static final String PRODUCT_REFRESH_EXECUTOR = "productRefreshExecutor";
+    public static final String PRODUCT_STREAM_EXECUTOR = "productStreamExecutor";
+
+    @Value("${product.lookup.pool-size:8}")
+    private int poolSize;
+
+    @Value("${product.lookup.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${product.cache.refresh-pool-size:2}")
+    private int refreshPoolSize;
+
+    @Value("${product.cache.refresh-queue-capacity:100}")
+    private int refreshQueueCapacity;
+
+    @Value("${product.stream.pool-size:4}")
+    private int streamPoolSize;
+
+    @Value("${product.stream.queue-capacity:50}")
+    private int streamQueueCapacity;
+
+    /**
+     * Bounded pool used to fan out product lookups. When the queue is full the calling
+     * thread runs the lookup itself, which throttles callers instead of failing them.
+     * Lookups keep the outbound priority of the thread that submitted them.
+     */
+    @Bean(PRODUCT_LOOKUP_EXECUTOR)
+    public ThreadPoolTaskExecutor productLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-lookup-");
+        executor.setTaskDecorator(OutboundPriority.propagating());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Pool running background cache refreshes. A refresh that cannot be queued is rejected and
+     * retried on a later read, so readers never wait for it. Its DummyJSON calls yield to interactive ones.
+     */
+    @Bean(PRODUCT_REFRESH_EXECUTOR)
+    public ThreadPoolTaskExecutor productRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refreshPoolSize);
+        executor.setMaxPoolSize(refreshPoolSize);
+        executor.setQueueCapacity(refreshQueueCapacity);
+        executor.setThreadNamePrefix("product-refresh-");
+        executor.setTaskDecorator(OutboundPriority.fixed(OutboundPriority.BACKGROUND));
+        return executor;
+    }
+
+    /**
+     * Pool writing streamed responses. It bounds how many listings are streamed at once, a stream
+     * that cannot be queued is rejected instead of starting another thread.
+     */
+    @Bean(PRODUCT_STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor productStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamPoolSize);
+        executor.setMaxPoolSize(streamPoolSize);
+        executor.setQueueCapacity(streamQueueCapacity);
+        executor.setThreadNamePrefix("product-stream-");
+        return executor;
+    }
+}
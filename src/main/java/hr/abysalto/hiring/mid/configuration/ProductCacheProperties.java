@@ -0,0 +1,114 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the product caches, bound from {@code product.cache}. Each cache has its own
+ * memory budget; entries are weighed by their estimated retained heap size.
+ */
+@ConfigurationProperties("product.cache")
+public record ProductCacheProperties(
+        @DefaultValue Spec products,
+        @DefaultValue Spec productById,
+        @DefaultValue Spec productSummaryById,
+        @DefaultValue NotFound notFound,
+        @DefaultValue Serialized serialized,
+        @DefaultValue Stale stale,
+        @DefaultValue OffHeap offHeap,
+        @DefaultValue Persistent persistent,
+        @DefaultValue WarmUp warmUp,
+        @DefaultValue Intern intern
+) {
+
+    public record Spec(
+            @DefaultValue("32MB") DataSize maximumWeight,
+            @DefaultValue("5m") Duration refreshAfterWrite,
+            @DefaultValue("30m") Duration expireAfterWrite
+    ) {
+    }
+
+    /**
+     * Keeping the encoded JSON of cached products and product pages, so they are written without
+     * running Jackson again, and optionally their gzipped form for clients accepting gzip. The kept
+     * bytes of all values together are bounded by maximum-weight, on top of the cache budgets.
+     */
+    public record Serialized(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("false") boolean gzip,
+            @DefaultValue("32MB") DataSize maximumWeight
+    ) {
+    }
+
+    /**
+     * Last values loaded from DummyJSON, served marked stale while it is unavailable, for at most
+     * maximum-staleness after they were loaded. Values dropped by their cache are still held here,
+     * so maximum-weight is heap on top of the cache budgets.
+     */
+    public record Stale(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("8MB") DataSize maximumWeight,
+            @DefaultValue("24h") Duration maximumStaleness
+    ) {
+    }
+
+    /**
+     * Second tier for products and product pages evicted from their caches, kept as deflated JSON
+     * in maximum-size bytes of direct memory split into blocks of block-size.
+     */
+    public record OffHeap(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("256MB") DataSize maximumSize,
+            @DefaultValue("256B") DataSize blockSize
+    ) {
+    }
+
+    /**
+     * Snapshot file of the products and productById caches, written on shutdown and every
+     * save-interval, and loaded on startup.
+     */
+    public record Persistent(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("data/product-cache.snapshot") Path path,
+            @DefaultValue("10m") Duration saveInterval
+    ) {
+    }
+
+    /**
+     * Products and listing pages loaded into the caches on startup while readiness is held back.
+     * The products are product-ids followed by up to popular-products of the products most users
+     * have in their favourites or carts. The pages are the default listing and the first pages of
+     * page-size products. At most concurrency loads are queued or running at a time.
+     */
+    public record WarmUp(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue List<Long> productIds,
+            @DefaultValue("100") int popularProducts,
+            @DefaultValue("3") int pages,
+            @DefaultValue("30") int pageSize,
+            @DefaultValue("30s") Duration deadline,
+            @DefaultValue("4") int concurrency
+    ) {
+    }
+
+    /**
+     * Pool of up to maximum-size values shared by cached products instead of each product holding
+     * its own copy.
+     */
+    public record Intern(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("20000") long maximumSize
+    ) {
+    }
+
+    public record NotFound(
+            @DefaultValue("1m") Duration ttl,
+            @DefaultValue("10000") long maximumSize
+    ) {
+    }
+}
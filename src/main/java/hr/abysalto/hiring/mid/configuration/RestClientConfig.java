@@ -1,23 +1,62 @@
 package hr.abysalto.hiring.mid.configuration;
 
+import hr.abysalto.hiring.mid.client.CircuitBreaker;
+import hr.abysalto.hiring.mid.client.OutboundGovernor;
+import hr.abysalto.hiring.mid.client.OutboundPriority;
 import hr.abysalto.hiring.mid.client.ProductClient;
+import hr.abysalto.hiring.mid.client.UpstreamClientRequestObservationConvention;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.util.Map;
+
 @Configuration
+@EnableConfigurationProperties(DummyJsonClientProperties.class)
 public class RestClientConfig {
 
+    private static final String POOLED = "pooled";
+
     @Value("${dummyjson.base-url}")
     private String dummyJsonBaseUrl;
 
+    /**
+     * Built from Spring Boot's RestClient builder, so every call is observed as
+     * {@code http.client.requests}, tagged with the URI template, status, outcome and the upstream.
+     */
     @Bean
-    public RestClient dummyJsonRestClient() {
-        return RestClient.builder()
+    public RestClient dummyJsonRestClient(RestClient.Builder restClientBuilder, DummyJsonClientProperties properties,
+                                          ObjectProvider<CloseableHttpClient> dummyJsonHttpClient) {
+        ClientHttpRequestFactory requestFactory = switch (properties.type()) {
+            case JDK -> jdkRequestFactory(properties);
+            case POOLED -> new HttpComponentsClientHttpRequestFactory(dummyJsonHttpClient.getObject());
+        };
+        return restClientBuilder
                 .baseUrl(dummyJsonBaseUrl)
+                .requestFactory(requestFactory)
+                .observationConvention(new UpstreamClientRequestObservationConvention("dummyjson"))
                 .build();
     }
 
@@ -27,4 +66,81 @@ public class RestClientConfig {
         HttpServiceProxyFactory factory = HttpServiceProxyFactory.builderFor(adapter).build();
         return factory.createClient(ProductClient.class);
     }
+
+    /**
+     * Circuit breaker every DummyJSON call goes through.
+     */
+    @Bean
+    public CircuitBreaker dummyJsonCircuitBreaker(DummyJsonClientProperties properties, MeterRegistry meterRegistry) {
+        return new CircuitBreaker("dummyjson", properties.circuitBreaker().failureThreshold(),
+                properties.circuitBreaker().openDuration(), Clock.systemUTC(), meterRegistry);
+    }
+
+    /**
+     * Governor every DummyJSON call goes through.
+     */
+    @Bean
+    public OutboundGovernor dummyJsonGovernor(DummyJsonClientProperties properties, MeterRegistry meterRegistry) {
+        DummyJsonClientProperties.Governor governor = properties.governor();
+        return new OutboundGovernor("dummyjson", governor.maxConcurrent(), governor.ratePerSecond(), governor.burst(),
+                governor.queueCapacity(),
+                Map.of(OutboundPriority.INTERACTIVE, governor.interactiveMaxWait(),
+                        OutboundPriority.BACKGROUND, governor.backgroundMaxWait()),
+                meterRegistry);
+    }
+
+    /**
+     * Connections to DummyJSON are reused up to their time to live, idle ones are closed in the
+     * background, and a request waits at most connection-request-timeout for a free connection.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "dummyjson.client.type", havingValue = POOLED)
+    public PoolingHttpClientConnectionManager dummyJsonConnectionManager(DummyJsonClientProperties properties) {
+        DummyJsonClientProperties.Pool pool = properties.pool();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.maxConnections())
+                .setMaxConnPerRoute(pool.maxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                        .setTimeToLive(TimeValue.of(pool.timeToLive()))
+                        .setValidateAfterInactivity(TimeValue.of(pool.validateAfterInactivity()))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "dummyjson.client.type", havingValue = POOLED)
+    public CloseableHttpClient dummyJsonHttpClient(PoolingHttpClientConnectionManager dummyJsonConnectionManager,
+                                                   DummyJsonClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(dummyJsonConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.pool().connectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.readTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.pool().idleTimeout()))
+                .build();
+    }
+
+    /**
+     * Publishes the pool usage as {@code httpcomponents.httpclient.pool.*} metrics tagged
+     * {@code httpclient=dummyjson}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "dummyjson.client.type", havingValue = POOLED)
+    public MeterBinder dummyJsonConnectionPoolMetrics(PoolingHttpClientConnectionManager dummyJsonConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(dummyJsonConnectionManager, "dummyjson");
+    }
+
+    private static ClientHttpRequestFactory jdkRequestFactory(DummyJsonClientProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(properties.jdk().http2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.connectTimeout())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.readTimeout());
+        return requestFactory;
+    }
 }
@@ -40,6 +40,7 @@ public class SecurityConfig {
                     .requestMatchers(
                         "/api/auth/register",
                         "/api/auth/login",
+                        "/actuator/health/**",
                         "/swagger-ui/**",
                         "/v3/api-docs*/**",
                         "/h2-console/**"
@@ -0,0 +1,67 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds a streamed response body back until the request thread has left the filter chain. Filters
+ * such as Spring Security's header writer still write headers on the request thread after the
+ * stream was started on another thread, and the response is not safe for concurrent use. A body
+ * still held back after five seconds fails instead of writing.
+ */
+@Slf4j
+public class StreamingResponseGateFilter extends OncePerRequestFilter {
+
+    private static final String GATE_ATTRIBUTE = StreamingResponseGateFilter.class.getName() + ".gate";
+    private static final long MAX_WAIT_SECONDS = 5;
+
+    /**
+     * Wraps the body so it starts writing only once the current request has left the filter chain.
+     * Returns the body unchanged for requests this filter did not see.
+     */
+    public static StreamingResponseBody gated(StreamingResponseBody body) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null
+                || !(attributes.getAttribute(GATE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CountDownLatch gate)) {
+            return body;
+        }
+        return out -> {
+            try {
+                if (!gate.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    // Writing now would race the request thread on the response
+                    log.warn("Request thread did not leave the filter chain within {}s, not streaming the response",
+                            MAX_WAIT_SECONDS);
+                    throw new IOException("Request thread did not leave the filter chain in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted before streaming the response");
+            }
+            body.writeTo(out);
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CountDownLatch gate = new CountDownLatch(1);
+        request.setAttribute(GATE_ATTRIBUTE, gate);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            gate.countDown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor productStreamExecutor;
+    private final Duration streamTimeout;
+
+    public WebMvcConfig(@Qualifier(ExecutorConfig.PRODUCT_STREAM_EXECUTOR) AsyncTaskExecutor productStreamExecutor,
+                        @Value("${product.stream.timeout:PT2M}") Duration streamTimeout) {
+        this.productStreamExecutor = productStreamExecutor;
+        this.streamTimeout = streamTimeout;
+    }
+
+    /**
+     * Registered ahead of the security filters, so its gate opens only after they have finished.
+     */
+    @Bean
+    public FilterRegistrationBean<StreamingResponseGateFilter> streamingResponseGateFilter() {
+        FilterRegistrationBean<StreamingResponseGateFilter> registration =
+                new FilterRegistrationBean<>(new StreamingResponseGateFilter());
+        registration.addUrlPatterns("/api/products/stream");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Streamed responses are written on their own bounded pool rather than on the default
+     * executor, which starts a new thread for every request.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(productStreamExecutor);
+        configurer.setDefaultTimeout(streamTimeout.toMillis());
+    }
+}
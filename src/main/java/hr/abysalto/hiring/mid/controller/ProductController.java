@@ -1,15 +1,26 @@
 package hr.abysalto.hiring.mid.controller;
 
+import hr.abysalto.hiring.mid.configuration.StreamingResponseGateFilter;
 import hr.abysalto.hiring.mid.controller.problemdetail.ProductNotFoundProblemDetail;
 import hr.abysalto.hiring.mid.controller.specification.ProductV1;
+import hr.abysalto.hiring.mid.dto.ProductBatchResponse;
 import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductFilter;
 import hr.abysalto.hiring.mid.dto.ProductsResponse;
 import hr.abysalto.hiring.mid.exception.ProductNotFoundException;
+import hr.abysalto.hiring.mid.service.ProductBatchService;
+import hr.abysalto.hiring.mid.service.ProductSearchService;
 import hr.abysalto.hiring.mid.service.ProductService;
+import hr.abysalto.hiring.mid.service.ProductStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -17,18 +28,55 @@ import org.springframework.web.bind.annotation.RestController;
 public class ProductController implements ProductV1 {
 
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
+    private final ProductSearchService productSearchService;
+    private final ProductStreamService productStreamService;
+
+    @Override
+    public ProductsResponse getAllProducts(Integer limit, Integer skip, String sortBy, String order,
+                                           List<String> category, List<String> brand, Double minPrice,
+                                           Double maxPrice, List<String> availabilityStatus, boolean facets) {
+        ProductFilter filter = ProductFilter.builder()
+                .categories(category)
+                .brands(brand)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .availabilityStatuses(availabilityStatus)
+                .build();
+        log.info("Received request to get all products with limit: {}, skip: {}, sortBy: {}, order: {}, filter: {}, facets: {}",
+                limit, skip, sortBy, order, filter, facets);
+        if (filter.isEmpty() && !facets) {
+            return productService.getAllProducts(limit, skip, sortBy, order);
+        }
+        return productService.getFilteredProducts(filter, limit, skip, sortBy, order);
+    }
+
+    @Override
+    public ProductsResponse searchProducts(String q, Integer limit, Integer skip) {
+        log.info("Received request to search products with q: {}, limit: {}, skip: {}", q, limit, skip);
+        return productSearchService.searchProducts(q, limit, skip);
+    }
 
     @Override
-    public ProductsResponse getAllProducts(Integer limit, Integer skip, String sortBy, String order) {
-        log.info("Received request to get all products with limit: {}, skip: {}, sortBy: {}, order: {}",
+    public ResponseEntity<StreamingResponseBody> streamProducts(Integer limit, Integer skip, String sortBy, String order) {
+        log.info("Received request to stream products with limit: {}, skip: {}, sortBy: {}, order: {}",
                 limit, skip, sortBy, order);
-        return productService.getAllProducts(limit, skip, sortBy, order);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(StreamingResponseGateFilter.gated(
+                        productStreamService.streamProducts(limit, skip, sortBy, order)));
+    }
+
+    @Override
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        log.info("Received request to get products with ids: {}", ids);
+        return productBatchService.getProductBatch(ids);
     }
 
     @Override
     public ProductDto getProductById(Long productId) {
         log.info("Received request to get product with id: {}", productId);
-        return productService.getProductById(productId);
+        return productService.getProductById(productId).toDto();
     }
 
     @ExceptionHandler
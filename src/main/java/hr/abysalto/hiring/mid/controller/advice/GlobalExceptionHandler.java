@@ -1,8 +1,14 @@
 package hr.abysalto.hiring.mid.controller.advice;
 
 import hr.abysalto.hiring.mid.controller.problemdetail.TechnicalFailureProblemDetail;
+import hr.abysalto.hiring.mid.controller.problemdetail.UpstreamUnavailableProblemDetail;
 import hr.abysalto.hiring.mid.controller.problemdetail.ValidationFailureProblemDetail;
+import hr.abysalto.hiring.mid.exception.InvalidRequestParameterException;
+import hr.abysalto.hiring.mid.exception.UpstreamUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -26,6 +32,26 @@ public class GlobalExceptionHandler {
         return new ValidationFailureProblemDetail(violations);
     }
 
+    @ExceptionHandler
+    public ValidationFailureProblemDetail handleInvalidRequestParameterException(InvalidRequestParameterException ex) {
+        log.warn("Request parameter is not valid, responding with validation failure problem detail", ex);
+        return new ValidationFailureProblemDetail(List.of(
+                new ValidationFailureProblemDetail.Violation(ex.getParameter(), ex.getRejectedValue(), ex.getMessage())
+        ));
+    }
+
+    /**
+     * The circuit to DummyJSON is open and there was no stale value to serve, so the client is told
+     * when to try again instead of getting a 500.
+     */
+    @ExceptionHandler
+    public ResponseEntity<UpstreamUnavailableProblemDetail> handleUpstreamUnavailableException(UpstreamUnavailableException ex) {
+        log.warn("Upstream is unavailable, responding with upstream unavailable problem detail: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(new UpstreamUnavailableProblemDetail(ex.getMessage()));
+    }
+
     @ExceptionHandler
     public TechnicalFailureProblemDetail handleGenericException(Exception ex) {
         log.error("An unexpected exception has occurred, responding with technical failure problem detail", ex);
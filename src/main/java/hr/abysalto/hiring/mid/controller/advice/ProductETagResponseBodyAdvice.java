@@ -0,0 +1,121 @@
+package hr.abysalto.hiring.mid.controller.advice;
+
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.cache.LastKnownValues;
+import hr.abysalto.hiring.mid.configuration.CachedJsonHttpMessageConverter;
+import hr.abysalto.hiring.mid.configuration.ProductCacheProperties;
+import hr.abysalto.hiring.mid.controller.ProductController;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Adds a strong {@code ETag} and a {@code Cache-Control} header to product and product listing
+ * responses. For values held in a cache, the tag is a digest of the serialized value computed once
+ * per cached value, with a separate tag for the gzipped form written to clients accepting gzip.
+ * {@code If-None-Match} requests are answered with 304 before anything is
+ * serialized, and the max-age is the time left until the cache entry is refreshed, or zero for a
+ * stale value. Values built per request, such as catalogue snapshot slices and filtered listings,
+ * are tagged by {@link CachedJsonHttpMessageConverter} from the bytes it writes, so they are
+ * serialized only once, and get a max-age of zero.
+ */
+@ControllerAdvice(assignableTypes = ProductController.class)
+public class ProductETagResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    private final CachedRepresentations cachedRepresentations;
+    private final LastKnownValues lastKnownValues;
+    private final ProductCacheProperties cacheProperties;
+    private final Clock clock = Clock.systemUTC();
+
+    public ProductETagResponseBodyAdvice(CachedRepresentations cachedRepresentations,
+                                         LastKnownValues lastKnownValues,
+                                         ProductCacheProperties cacheProperties) {
+        this.cachedRepresentations = cachedRepresentations;
+        this.lastKnownValues = lastKnownValues;
+        this.cacheProperties = cacheProperties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        Class<?> type = returnType.getParameterType();
+        return ProductDto.class.isAssignableFrom(type) || ProductsResponse.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        Object value = body instanceof MappingJacksonValue container ? container.getValue() : body;
+        if (!(value instanceof ProductDto || value instanceof ProductsResponse)
+                || request.getMethod() != HttpMethod.GET
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+
+        if (!cachedRepresentations.isLoaded(value)) {
+            servletRequest.getServletRequest().setAttribute(CachedJsonHttpMessageConverter.TAG_BODY_ATTRIBUTE, Boolean.TRUE);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(Duration.ZERO).cachePrivate().getHeaderValue());
+            return body;
+        }
+
+        String[] fields = servletRequest.getServletRequest().getParameterValues(ProductFieldsResponseBodyAdvice.FIELDS_PARAMETER);
+        String etag = etag(value, fields);
+        // Mirrors when CachedJsonHttpMessageConverter writes the kept gzipped form
+        if (fields == null && cacheProperties.serialized().gzip() && cachedRepresentations.keepsSerialized(value)) {
+            // Set on the servlet response, so a 304 carries it as well
+            if (!servletResponse.getServletResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING)) {
+                servletResponse.getServletResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (CachedJsonHttpMessageConverter.acceptsGzip(servletRequest.getServletRequest())) {
+                etag = CachedRepresentations.gzipEntityTag(etag);
+            }
+        }
+        response.getHeaders().set(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(maxAge(value)).cachePrivate().getHeaderValue());
+
+        ServletWebRequest webRequest = new ServletWebRequest(servletRequest.getServletRequest(), servletResponse.getServletResponse());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return body;
+    }
+
+    private String etag(Object value, String[] fields) {
+        String etag = cachedRepresentations.etag(value);
+        if (fields == null) {
+            return etag;
+        }
+        // A projection is a different representation of the same value, so it gets its own tag
+        return CachedRepresentations.entityTag((etag + "|" + String.join(",", fields)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Duration maxAge(Object value) {
+        if (lastKnownValues.isStale(value)) {
+            return Duration.ZERO;
+        }
+        Duration refreshAfterWrite = value instanceof ProductDto
+                ? cacheProperties.productById().refreshAfterWrite()
+                : cacheProperties.products().refreshAfterWrite();
+        Duration age = Duration.between(cachedRepresentations.loadedAt(value), Instant.now(clock));
+        Duration remaining = refreshAfterWrite.minus(age);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
@@ -0,0 +1,101 @@
+package hr.abysalto.hiring.mid.controller.advice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hr.abysalto.hiring.mid.controller.CartController;
+import hr.abysalto.hiring.mid.controller.FavouriteController;
+import hr.abysalto.hiring.mid.controller.ProductController;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
+import hr.abysalto.hiring.mid.exception.InvalidRequestParameterException;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the {@code fields} query parameter to every {@link ProductDto} in a response, so only the
+ * requested product properties are written. Cart responses hold {@link ProductSummaryDto summaries},
+ * so there only the summary properties may be requested. The filter for each distinct parameter
+ * value is built once and reused by later requests.
+ */
+@ControllerAdvice(assignableTypes = {ProductController.class, CartController.class, FavouriteController.class})
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductFieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private final Set<String> productFields;
+    private final Set<String> summaryFields;
+    private final Cache<String, FilterProvider> filterProviders = Caffeine.newBuilder()
+            .maximumSize(256)
+            .build();
+
+    public ProductFieldsResponseBodyAdvice(ObjectMapper objectMapper) {
+        this.productFields = properties(objectMapper, ProductDto.class);
+        this.summaryFields = properties(objectMapper, ProductSummaryDto.class);
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (bodyContainer.getValue() instanceof ProblemDetail || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String[] values = servletRequest.getServletRequest().getParameterValues(FIELDS_PARAMETER);
+        if (values == null) {
+            return;
+        }
+        String fields = String.join(",", values);
+        if (CartController.class.isAssignableFrom(returnType.getContainingClass())) {
+            bodyContainer.setFilters(filterProviders.get("summary:" + fields,
+                    key -> createFilterProvider(summaryFields, fields)));
+        } else {
+            bodyContainer.setFilters(filterProviders.get(fields, key -> createFilterProvider(productFields, fields)));
+        }
+    }
+
+    private static Set<String> properties(ObjectMapper objectMapper, Class<?> type) {
+        return objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(type))
+                .findProperties()
+                .stream()
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private FilterProvider createFilterProvider(Set<String> allowed, String fields) {
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        List<String> unknown = requested.stream()
+                .filter(field -> !allowed.contains(field))
+                .sorted()
+                .toList();
+        if (requested.isEmpty() || !unknown.isEmpty()) {
+            throw new InvalidRequestParameterException(FIELDS_PARAMETER, fields,
+                    requested.isEmpty() ? "At least one product field is required" : "Unknown product fields: " + unknown);
+        }
+        return new SimpleFilterProvider()
+                .addFilter(ProductDto.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(requested));
+    }
+}
@@ -0,0 +1,63 @@
+package hr.abysalto.hiring.mid.controller.advice;
+
+import hr.abysalto.hiring.mid.cache.LastKnownValues;
+import hr.abysalto.hiring.mid.controller.CartController;
+import hr.abysalto.hiring.mid.controller.FavouriteController;
+import hr.abysalto.hiring.mid.controller.ProductController;
+import hr.abysalto.hiring.mid.dto.CartResponse;
+import hr.abysalto.hiring.mid.dto.ProductBatchResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+
+/**
+ * Marks responses containing product data that was served from the last known values while
+ * DummyJSON was unavailable with {@code Warning: 110 - "Response is Stale"}.
+ */
+@ControllerAdvice(assignableTypes = {ProductController.class, CartController.class, FavouriteController.class})
+@RequiredArgsConstructor
+public class StaleResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String WARNING_HEADER = "Warning";
+    public static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final LastKnownValues lastKnownValues;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        Object value = body instanceof MappingJacksonValue container ? container.getValue() : body;
+        if (containsStale(value)) {
+            response.getHeaders().set(WARNING_HEADER, STALE_WARNING);
+        }
+        return body;
+    }
+
+    private boolean containsStale(Object value) {
+        if (value instanceof ProductBatchResponse batch) {
+            return containsStale(batch.getProducts());
+        }
+        if (value instanceof CartResponse cart) {
+            return cart.getItems() != null
+                    && cart.getItems().stream().anyMatch(item -> lastKnownValues.isStale(item.getProduct()));
+        }
+        if (value instanceof Collection<?> values) {
+            return values.stream().anyMatch(lastKnownValues::isStale);
+        }
+        return lastKnownValues.isStale(value);
+    }
+}
@@ -0,0 +1,21 @@
+package hr.abysalto.hiring.mid.controller.problemdetail;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+
+import java.net.URI;
+import java.time.Instant;
+
+public class UpstreamUnavailableProblemDetail extends ProblemDetail {
+
+    public static final String TYPE = "https://api.example.com/problems/upstream-unavailable-problem-detail";
+    public static final String TITLE = "Upstream Unavailable Problem Detail";
+
+    public UpstreamUnavailableProblemDetail(String detail) {
+        super(HttpStatus.SERVICE_UNAVAILABLE.value());
+        setType(URI.create(TYPE));
+        setTitle(TITLE);
+        setDetail(detail);
+        setProperty("timestamp", Instant.now());
+    }
+}
@@ -7,6 +7,7 @@ import hr.abysalto.hiring.mid.dto.CartItemResponse;
 import hr.abysalto.hiring.mid.dto.CartResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -60,7 +61,13 @@ public interface CartV1 {
     @GetMapping
     @Operation(
             summary = "Get user cart",
-            description = "Retrieves all products in the current user's shopping cart"
+            description = "Retrieves all products in the current user's shopping cart. Cart products are "
+                    + "summaries holding only id, title, price and thumbnail",
+            parameters = @Parameter(
+                    name = "fields",
+                    in = ParameterIn.QUERY,
+                    description = "Comma separated product fields to return, out of id,title,price,thumbnail"
+            )
     )
     @ApiResponses(value = {
             @ApiResponse(
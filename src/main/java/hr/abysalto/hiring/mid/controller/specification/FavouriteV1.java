@@ -7,6 +7,7 @@ import hr.abysalto.hiring.mid.dto.FavouriteResponse;
 import hr.abysalto.hiring.mid.dto.ProductDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -63,7 +64,12 @@ public interface FavouriteV1 {
     @GetMapping
     @Operation(
             summary = "Get user favourites",
-            description = "Retrieves all products in the current user's favourites list"
+            description = "Retrieves all products in the current user's favourites list",
+            parameters = @Parameter(
+                    name = "fields",
+                    in = ParameterIn.QUERY,
+                    description = "Comma separated product fields to return, e.g. id,title,price,thumbnail,rating"
+            )
     )
     @ApiResponses(value = {
             @ApiResponse(
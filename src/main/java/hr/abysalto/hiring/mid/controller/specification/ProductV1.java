@@ -1,16 +1,24 @@
 package hr.abysalto.hiring.mid.controller.specification;
 
 import hr.abysalto.hiring.mid.controller.problemdetail.ProductNotFoundProblemDetail;
+import hr.abysalto.hiring.mid.controller.problemdetail.ValidationFailureProblemDetail;
+import hr.abysalto.hiring.mid.dto.ProductBatchResponse;
 import hr.abysalto.hiring.mid.dto.ProductDto;
 import hr.abysalto.hiring.mid.dto.ProductsResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @Tag(name = "Products", description = "Product management endpoints")
 @RequestMapping("/api/products")
@@ -19,7 +27,13 @@ public interface ProductV1 {
     @GetMapping
     @Operation(
             summary = "Get all products",
-            description = "Retrieves all products from the catalog with optional pagination and sorting"
+            description = "Retrieves all products from the catalog with optional pagination and sorting. "
+                    + "When filtering or when facets are requested, the response also contains facet counts",
+            parameters = @Parameter(
+                    name = "fields",
+                    in = ParameterIn.QUERY,
+                    description = "Comma separated product fields to return, e.g. id,title,price,thumbnail,rating"
+            )
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -38,13 +52,136 @@ public interface ProductV1 {
             @Parameter(description = "Field to sort by (e.g., 'title', 'price', 'rating')")
             @RequestParam(required = false) String sortBy,
             @Parameter(description = "Sort order ('asc' or 'desc')")
+            @RequestParam(required = false) String order,
+            @Parameter(description = "Only products in one of these categories, e.g. smartphones,laptops")
+            @RequestParam(required = false) List<String> category,
+            @Parameter(description = "Only products of one of these brands")
+            @RequestParam(required = false) List<String> brand,
+            @Parameter(description = "Minimum price, inclusive")
+            @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price, inclusive")
+            @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Only products with one of these availability statuses, e.g. In Stock")
+            @RequestParam(required = false) List<String> availabilityStatus,
+            @Parameter(description = "Whether to return facet counts for category, brand and availability status")
+            @RequestParam(required = false, defaultValue = "false") boolean facets
+    );
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search products",
+            description = "Searches product titles, descriptions, brands, categories and tags. "
+                    + "Products must match every word of the query, the last word also matches as a prefix. "
+                    + "Results are ranked by relevance",
+            parameters = @Parameter(
+                    name = "fields",
+                    in = ParameterIn.QUERY,
+                    description = "Comma separated product fields to return, e.g. id,title,price,thumbnail,rating"
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Products retrieved successfully",
+                    content = @Content(
+                            schema = @Schema(implementation = ProductsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Blank search query",
+                    content = @Content(
+                            schema = @Schema(implementation = ValidationFailureProblemDetail.class)
+                    )
+            )
+    })
+    ProductsResponse searchProducts(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Number of products to return")
+            @RequestParam(required = false, defaultValue = "30") Integer limit,
+            @Parameter(description = "Number of products to skip")
+            @RequestParam(required = false, defaultValue = "0") Integer skip
+    );
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Stream products",
+            description = "Returns the same document as getting all products, but writes products as they are "
+                    + "received from upstream, so listings of any size use constant memory. "
+                    + "A limit of 0 returns all products. The status is sent before the first chunk is "
+                    + "requested, so when upstream fails after that the response stays 200: the document is "
+                    + "completed with the products streamed so far and an error field, which complete listings "
+                    + "never have"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Products streamed, incomplete when the document has an error field",
+                    content = @Content(
+                            schema = @Schema(implementation = ProductsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Negative limit or skip",
+                    content = @Content(
+                            schema = @Schema(implementation = ValidationFailureProblemDetail.class)
+                    )
+            )
+    })
+    ResponseEntity<StreamingResponseBody> streamProducts(
+            @Parameter(description = "Number of products to return, 0 for all")
+            @RequestParam(required = false, defaultValue = "0") Integer limit,
+            @Parameter(description = "Number of products to skip")
+            @RequestParam(required = false, defaultValue = "0") Integer skip,
+            @Parameter(description = "Field to sort by (e.g., 'title', 'price', 'rating')")
+            @RequestParam(required = false) String sortBy,
+            @Parameter(description = "Sort order ('asc' or 'desc')")
             @RequestParam(required = false) String order
     );
 
+    @GetMapping("/batch")
+    @Operation(
+            summary = "Get products by IDs",
+            description = "Retrieves multiple products in one call, in the order of the requested IDs. "
+                    + "IDs of products that do not exist are reported in notFound instead of failing the request",
+            parameters = @Parameter(
+                    name = "fields",
+                    in = ParameterIn.QUERY,
+                    description = "Comma separated product fields to return, e.g. id,title,price,thumbnail,rating"
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Products retrieved successfully",
+                    content = @Content(
+                            schema = @Schema(implementation = ProductBatchResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Too many product IDs requested",
+                    content = @Content(
+                            schema = @Schema(implementation = ValidationFailureProblemDetail.class)
+                    )
+            )
+    })
+    ProductBatchResponse getProductsByIds(
+            @Parameter(description = "Comma separated product IDs, e.g. 1,2,3", required = true)
+            @RequestParam List<Long> ids
+    );
+
     @GetMapping("/{productId}")
     @Operation(
             summary = "Get product by ID",
-            description = "Retrieves a single product by its ID"
+            description = "Retrieves a single product by its ID",
+            parameters = @Parameter(
+                    name = "fields",
+                    in = ParameterIn.QUERY,
+                    description = "Comma separated product fields to return, e.g. id,title,price,thumbnail,rating"
+            )
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -22,7 +22,7 @@ public class CartResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class CartProductDto {
-        private ProductDto product;
+        private ProductSummaryDto product;
         private Integer quantity;
     }
 }
@@ -0,0 +1,18 @@
+package hr.abysalto.hiring.mid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+
+    private List<ProductDto> products;
+    private List<Long> notFound;
+}
@@ -1,5 +1,6 @@
 package hr.abysalto.hiring.mid.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,8 +12,11 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(ProductDto.FIELDS_FILTER)
 public class ProductDto {
 
+    public static final String FIELDS_FILTER = "productFields";
+
     private Long id;
     private String title;
     private String description;
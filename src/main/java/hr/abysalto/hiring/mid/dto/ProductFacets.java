@@ -0,0 +1,23 @@
+package hr.abysalto.hiring.mid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Number of products per facet value. The counts of each facet honour every filter except the
+ * facet's own, so they show how many products selecting that value would add.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+
+    private Map<String, Integer> categories;
+    private Map<String, Integer> brands;
+    private Map<String, Integer> availabilityStatuses;
+}
@@ -0,0 +1,29 @@
+package hr.abysalto.hiring.mid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+
+    private List<String> categories;
+    private List<String> brands;
+    private Double minPrice;
+    private Double maxPrice;
+    private List<String> availabilityStatuses;
+
+    public boolean isEmpty() {
+        return (categories == null || categories.isEmpty())
+                && (brands == null || brands.isEmpty())
+                && minPrice == null
+                && maxPrice == null
+                && (availabilityStatuses == null || availabilityStatuses.isEmpty());
+    }
+}
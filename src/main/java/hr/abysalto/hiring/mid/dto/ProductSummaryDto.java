@@ -0,0 +1,29 @@
+package hr.abysalto.hiring.mid.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The few product properties needed to check that a product exists and to show it in a cart.
+ * Fetched from DummyJSON with {@link #SELECT}, so the rest of the product is never transferred.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(ProductDto.FIELDS_FILTER)
+public class ProductSummaryDto {
+
+    /**
+     * DummyJSON {@code select} value for a summary; the id is always returned.
+     */
+    public static final String SELECT = "title,price,thumbnail";
+
+    private Long id;
+    private String title;
+    private Double price;
+    private String thumbnail;
+}
@@ -1,6 +1,7 @@
 package hr.abysalto.hiring.mid.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,5 +19,8 @@ public class ProductsResponse {
     private Integer total;
     private Integer skip;
     private Integer limit;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ProductFacets facets;
 }
 
@@ -0,0 +1,21 @@
+package hr.abysalto.hiring.mid.exception;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidRequestParameterException extends RuntimeException {
+
+    private final String parameter;
+    private final String rejectedValue;
+
+    public InvalidRequestParameterException(String parameter, String rejectedValue, String message) {
+        super(message);
+        this.parameter = parameter;
+        this.rejectedValue = rejectedValue;
+    }
+
+    public static InvalidRequestParameterException tooManyValues(String parameter, int size, int maxSize) {
+        return new InvalidRequestParameterException(parameter, String.valueOf(size),
+                "At most " + maxSize + " values are allowed for parameter " + parameter);
+    }
+}
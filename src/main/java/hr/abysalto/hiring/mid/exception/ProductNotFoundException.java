@@ -6,8 +6,19 @@ public class ProductNotFoundException extends RuntimeException {
         super(message);
     }
 
+    private ProductNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
     public static ProductNotFoundException forId(Long productId) {
         return new ProductNotFoundException("Product not found with id: " + productId);
     }
+
+    /**
+     * Cheap variant without a stack trace, thrown when the product is already known to be missing.
+     */
+    public static ProductNotFoundException knownMissing(Long productId) {
+        return new ProductNotFoundException("Product not found with id: " + productId, false);
+    }
 }
 
@@ -0,0 +1,20 @@
+package hr.abysalto.hiring.mid.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown without calling the upstream while its circuit is open, its call budget is used up or the
+ * data a request needs is still being loaded from it.
+ */
+@Getter
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public UpstreamUnavailableException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -18,6 +18,12 @@ public interface CartItemRepository extends CrudRepository<CartItem, Long> {
 
     boolean existsByUserIdAndProductId(Long userId, Long productId);
 
+    /**
+     * Products in the carts of the most users, most popular first.
+     */
+    @Query("SELECT PRODUCT_ID, COUNT(*) AS USER_COUNT FROM CART_ITEMS GROUP BY PRODUCT_ID ORDER BY USER_COUNT DESC LIMIT :limit")
+    List<ProductUserCount> findMostPopularProducts(int limit);
+
     @Modifying
     @Query("DELETE FROM CART_ITEMS WHERE USER_ID = :userId AND PRODUCT_ID = :productId")
     void deleteByUserIdAndProductId(Long userId, Long productId);
@@ -18,6 +18,12 @@ public interface FavouriteRepository extends CrudRepository<Favourite, Long> {
 
     boolean existsByUserIdAndProductId(Long userId, Long productId);
 
+    /**
+     * Products favourited by the most users, most popular first.
+     */
+    @Query("SELECT PRODUCT_ID, COUNT(*) AS USER_COUNT FROM FAVOURITES GROUP BY PRODUCT_ID ORDER BY USER_COUNT DESC LIMIT :limit")
+    List<ProductUserCount> findMostPopularProducts(int limit);
+
     @Modifying
     @Query("DELETE FROM FAVOURITES WHERE USER_ID = :userId AND PRODUCT_ID = :productId")
     void deleteByUserIdAndProductId(Long userId, Long productId);
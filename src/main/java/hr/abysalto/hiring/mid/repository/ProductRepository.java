@@ -0,0 +1,23 @@
+package hr.abysalto.hiring.mid.repository;
+
+import hr.abysalto.hiring.mid.repository.entity.Product;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductRepository extends CrudRepository<Product, Long> {
+
+    @Query("SELECT ID, META_UPDATED_AT FROM PRODUCTS")
+    List<ProductVersion> findAllVersions();
+
+    @Modifying
+    @Query("DELETE FROM PRODUCTS WHERE ID IN (:ids)")
+    void deleteByIdIn(Collection<Long> ids);
+
+    record ProductVersion(Long id, String metaUpdatedAt) { }
+}
@@ -0,0 +1,7 @@
+package hr.abysalto.hiring.mid.repository;
+
+/**
+ * Number of users who have a product in their favourites or cart.
+ */
+public record ProductUserCount(Long productId, Long userCount) {
+}
@@ -0,0 +1,96 @@
+package hr.abysalto.hiring.mid.repository.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Embedded;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Local copy of a DummyJSON product. Scalar attributes are stored in their own columns so the
+ * catalogue can be sorted and paged in the database, list attributes are stored as JSON text.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("PRODUCTS")
+public class Product {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private String category;
+
+    private Double price;
+
+    private Double discountPercentage;
+
+    private Double rating;
+
+    private Integer stock;
+
+    private String tags;
+
+    private String brand;
+
+    private String sku;
+
+    private Double weight;
+
+    @Embedded.Nullable(prefix = "DIMENSIONS_")
+    private Dimensions dimensions;
+
+    private String warrantyInformation;
+
+    private String shippingInformation;
+
+    private String availabilityStatus;
+
+    private String reviews;
+
+    private String returnPolicy;
+
+    private Integer minimumOrderQuantity;
+
+    @Embedded.Nullable(prefix = "META_")
+    private Meta meta;
+
+    private String images;
+
+    private String thumbnail;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Dimensions {
+
+        private Double width;
+
+        private Double height;
+
+        private Double depth;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Meta {
+
+        private String createdAt;
+
+        private String updatedAt;
+
+        private String barcode;
+
+        private String qrCode;
+    }
+}
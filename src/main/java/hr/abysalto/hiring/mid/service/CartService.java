@@ -2,7 +2,7 @@ package hr.abysalto.hiring.mid.service;
 
 import hr.abysalto.hiring.mid.dto.CartItemResponse;
 import hr.abysalto.hiring.mid.dto.CartResponse;
-import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
 import hr.abysalto.hiring.mid.repository.entity.CartItem;
 import hr.abysalto.hiring.mid.repository.entity.User;
 import hr.abysalto.hiring.mid.exception.CartItemAlreadyExistsException;
@@ -17,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
@@ -27,6 +28,7 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final UserService userService;
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
 
     @Transactional
     public CartItemResponse addToCart(Long productId, Integer quantity) {
@@ -60,18 +62,20 @@ public class CartService {
 
         List<CartItem> cartItems = cartItemRepository.findByUserId(user.getId());
 
+        Map<Long, ProductSummaryDto> products = productBatchService.getProductSummariesByIds(
+                cartItems.stream().map(CartItem::getProductId).toList());
+
         List<CartResponse.CartProductDto> items = cartItems.stream()
                 .map(cartItem -> {
-                    try {
-                        ProductDto product = productService.getProductById(cartItem.getProductId());
-                        return CartResponse.CartProductDto.builder()
-                                .product(product)
-                                .quantity(cartItem.getQuantity())
-                                .build();
-                    } catch (ProductNotFoundException e) {
+                    ProductSummaryDto product = products.get(cartItem.getProductId());
+                    if (product == null) {
                         log.warn("Cart product {} no longer exists", cartItem.getProductId());
                         return null;
                     }
+                    return CartResponse.CartProductDto.builder()
+                            .product(product)
+                            .quantity(cartItem.getQuantity())
+                            .build();
                 })
                 .filter(Objects::nonNull)
                 .toList();
@@ -0,0 +1,30 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.client.OutboundPriority;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogueSnapshotRefresher {
+
+    private final CatalogueSnapshotService catalogueSnapshotService;
+
+    @Scheduled(
+            initialDelayString = "${product.catalogue.snapshot.initial-delay:PT0S}",
+            fixedDelayString = "${product.catalogue.snapshot.refresh-interval:PT10M}"
+    )
+    public void refresh() {
+        if (!catalogueSnapshotService.isInUse()) {
+            return;
+        }
+        try {
+            OutboundPriority.runAs(OutboundPriority.BACKGROUND, catalogueSnapshotService::refresh);
+        } catch (RuntimeException e) {
+            log.error("Catalogue snapshot refresh failed, keeping the current snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.catalogue.CatalogueSnapshot;
+import hr.abysalto.hiring.mid.configuration.ExecutorConfig;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductFilter;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.exception.InvalidRequestParameterException;
+import hr.abysalto.hiring.mid.exception.UpstreamUnavailableException;
+import hr.abysalto.hiring.mid.util.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CatalogueSnapshot}. A refresh loads the whole catalogue, builds a new
+ * snapshot and swaps it in atomically, so readers always see either the old or the new catalogue.
+ * Filters and search always need the snapshot, even when listings are not served from it. If it was
+ * not built yet, the first of them starts building it on the refresh pool and is answered with 503
+ * until it is ready, so no request thread waits for the whole catalogue.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogueSnapshotService {
+
+    private static final int DEFAULT_LIMIT = 30;
+    private static final Duration LOADING_RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final ProductLoader productLoader;
+
+    @Qualifier(ExecutorConfig.PRODUCT_REFRESH_EXECUTOR)
+    private final Executor productRefreshExecutor;
+
+    private final AtomicReference<CatalogueSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    @Value("${product.catalogue.snapshot.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Whether product listings sorted by the given field are served from the snapshot.
+     */
+    public boolean canServe(String sortBy) {
+        return enabled && snapshot.get() != null && CatalogueSnapshot.supportsSort(sortBy);
+    }
+
+    public ProductsResponse getProducts(Integer limit, Integer skip, String sortBy, String order) {
+        CatalogueSnapshot current = snapshot.get();
+        int offset = skip != null ? skip : 0;
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        log.info("Serving products from catalogue snapshot with limit: {}, skip: {}, sortBy: {}, order: {}",
+                limit, skip, sortBy, order);
+
+        List<ProductDto> products = current.page(offset, size, sortBy, "desc".equalsIgnoreCase(order));
+        return ProductMapper.mapToProductsResponse(products, current.size(), offset, size > 0 ? size : products.size());
+    }
+
+    /**
+     * Filters the catalogue snapshot and returns the page with facet counts.
+     */
+    public ProductsResponse getFilteredProducts(ProductFilter filter, Integer limit, Integer skip, String sortBy,
+                                                String order) {
+        if (!CatalogueSnapshot.supportsSort(sortBy)) {
+            throw new InvalidRequestParameterException("sortBy", sortBy, "Filtered products cannot be sorted by " + sortBy);
+        }
+        int offset = skip != null ? skip : 0;
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        log.info("Filtering products from catalogue snapshot with filter: {}, limit: {}, skip: {}, sortBy: {}, order: {}",
+                filter, limit, skip, sortBy, order);
+
+        CatalogueSnapshot.FilteredPage page = require().filter(filter, offset, size, sortBy, "desc".equalsIgnoreCase(order));
+        ProductsResponse response = ProductMapper.mapToProductsResponse(page.products(), page.total(), offset,
+                size > 0 ? size : page.products().size());
+        response.setFacets(page.facets());
+        return response;
+    }
+
+    public Optional<CatalogueSnapshot> current() {
+        return Optional.ofNullable(snapshot.get());
+    }
+
+    /**
+     * Returns the current snapshot. If no snapshot was built yet, starts building it in the
+     * background and throws {@link UpstreamUnavailableException} asking the client to retry.
+     */
+    public CatalogueSnapshot require() {
+        CatalogueSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        if (loading.compareAndSet(false, true)) {
+            try {
+                productRefreshExecutor.execute(this::load);
+            } catch (RejectedExecutionException e) {
+                loading.set(false);
+                log.warn("Refresh queue is full, the catalogue snapshot is loaded on a later request");
+            }
+        }
+        throw new UpstreamUnavailableException("Product catalogue is being loaded", LOADING_RETRY_AFTER);
+    }
+
+    /**
+     * Whether the snapshot should be kept up to date, either because listings are served from it or
+     * because another feature already needed it.
+     */
+    public boolean isInUse() {
+        return enabled || snapshot.get() != null;
+    }
+
+    private void load() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Loading the catalogue snapshot failed, it is loaded again on the next request", e);
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    public synchronized CatalogueSnapshot refresh() {
+        ProductsResponse catalogue = productLoader.loadCatalogue();
+        CatalogueSnapshot next = CatalogueSnapshot.of(catalogue.getProducts(), snapshot.get());
+        snapshot.set(next);
+        log.info("Swapped in catalogue snapshot with {} products", next.size());
+        return next;
+    }
+}
@@ -1,5 +1,6 @@
 package hr.abysalto.hiring.mid.service;
 
+import hr.abysalto.hiring.mid.cache.CachedProduct;
 import hr.abysalto.hiring.mid.dto.FavouriteResponse;
 import hr.abysalto.hiring.mid.dto.ProductDto;
 import hr.abysalto.hiring.mid.repository.entity.Favourite;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
@@ -26,6 +28,7 @@ public class FavouriteService {
     private final FavouriteRepository favouriteRepository;
     private final UserService userService;
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
 
     @Transactional
     public FavouriteResponse addToFavourites(Long productId) {
@@ -59,16 +62,19 @@ public class FavouriteService {
 
         List<Favourite> favourites = favouriteRepository.findByUserId(user.getId());
 
+        Map<Long, CachedProduct> products = productBatchService.getProductsByIds(
+                favourites.stream().map(Favourite::getProductId).toList());
+
         return favourites.stream()
                 .map(favourite -> {
-                    try {
-                        return productService.getProductById(favourite.getProductId());
-                    } catch (ProductNotFoundException e) {
+                    CachedProduct product = products.get(favourite.getProductId());
+                    if (product == null) {
                         log.warn("Favourite product {} no longer exists", favourite.getProductId());
-                        return null;
                     }
+                    return product;
                 })
                 .filter(Objects::nonNull)
+                .map(CachedProduct::toDto)
                 .toList();
     }
 
@@ -0,0 +1,185 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.cache.CachedProduct;
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.configuration.ExecutorConfig;
+import hr.abysalto.hiring.mid.dto.ProductBatchResponse;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
+import hr.abysalto.hiring.mid.exception.InvalidRequestParameterException;
+import hr.abysalto.hiring.mid.exception.ProductNotFoundException;
+import hr.abysalto.hiring.mid.util.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Resolves many products at once. Ids already present in the product cache are served
+ * with a single bulk lookup, the remaining ones are fetched concurrently on a bounded
+ * executor so that the total latency follows the slowest single lookup instead of the
+ * sum of all of them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBatchService {
+
+    private final ProductLoader productLoader;
+    private final CacheManager cacheManager;
+    private final CachedRepresentations cachedRepresentations;
+
+    @Qualifier(ExecutorConfig.PRODUCT_LOOKUP_EXECUTOR)
+    private final Executor productLookupExecutor;
+
+    @Value("${product.batch.max-ids:100}")
+    private int maxBatchSize;
+
+    public ProductBatchResponse getProductBatch(List<Long> productIds) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(productIds);
+        if (uniqueIds.size() > maxBatchSize) {
+            throw InvalidRequestParameterException.tooManyValues("ids", uniqueIds.size(), maxBatchSize);
+        }
+
+        Map<Long, CachedProduct> found = getProductsByIds(uniqueIds);
+
+        List<Long> notFound = uniqueIds.stream()
+                .filter(productId -> !found.containsKey(productId))
+                .toList();
+
+        return ProductMapper.mapToBatchResponse(new ArrayList<>(found.values()), notFound);
+    }
+
+    /**
+     * Returns the found products keyed by id, in the order of the given ids.
+     * Products that no longer exist are left out of the result.
+     */
+    public Map<Long, CachedProduct> getProductsByIds(Collection<Long> productIds) {
+        return lookupInOrder(productIds, CacheConfig.PRODUCT_BY_ID_CACHE, this::findProduct);
+    }
+
+    /**
+     * Same as {@link #getProductsByIds(Collection)}, but resolves only the product summaries.
+     */
+    public Map<Long, ProductSummaryDto> getProductSummariesByIds(Collection<Long> productIds) {
+        return lookupInOrder(productIds, CacheConfig.PRODUCT_SUMMARY_BY_ID_CACHE, this::findProductSummary);
+    }
+
+    private <T> Map<Long, T> lookupInOrder(Collection<Long> productIds, String cacheName, Function<Long, T> finder) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(productIds);
+        Map<Long, T> found = lookup(uniqueIds, cacheName, finder);
+
+        Map<Long, T> products = new LinkedHashMap<>();
+        for (Long productId : uniqueIds) {
+            T product = found.get(productId);
+            if (product != null) {
+                products.put(productId, product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Looks all ids up in the given cache at once and loads only the misses, which are
+     * then stored in the cache as a single bulk write. Products that were not found are
+     * not cached.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Map<Long, T> lookup(Set<Long> productIds, String cacheName, Function<Long, T> finder) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Cache cache = cacheManager.getCache(cacheName);
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            return fetchConcurrently(productIds, finder);
+        }
+
+        Map<Object, Object> cached = caffeineCache.getNativeCache().getAll(productIds, misses -> {
+            log.debug("Fetching {} of {} products missing from cache {}", misses.size(), productIds.size(), cacheName);
+            return fetchConcurrently(misses, finder);
+        });
+
+        Map<Long, T> products = new HashMap<>();
+        cached.forEach((productId, product) -> products.put((Long) productId, (T) product));
+        return products;
+    }
+
+    private <T> Map<Long, T> fetchConcurrently(Set<?> productIds, Function<Long, T> finder) {
+        Map<Long, T> products = new HashMap<>();
+
+        if (productIds.size() == 1) {
+            Long productId = (Long) productIds.iterator().next();
+            T product = finder.apply(productId);
+            if (product != null) {
+                products.put(productId, product);
+            }
+            return products;
+        }
+
+        Map<Long, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (Object id : productIds) {
+            Long productId = (Long) id;
+            futures.put(productId, CompletableFuture.supplyAsync(() -> finder.apply(productId), productLookupExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        futures.forEach((productId, future) -> {
+            T product = future.join();
+            if (product != null) {
+                products.put(productId, product);
+            }
+        });
+        return products;
+    }
+
+    /**
+     * Loads a product missing from the cache without going through the cache, which is written once
+     * for all misses by the bulk lookup.
+     */
+    private CachedProduct findProduct(Long productId) {
+        return find(productId, productLoader::loadProduct);
+    }
+
+    private ProductSummaryDto findProductSummary(Long productId) {
+        return find(productId, productLoader::loadProductSummary);
+    }
+
+    private <T> T find(Long productId, Function<Long, T> load) {
+        if (productLoader.isKnownMissing(productId)) {
+            return null;
+        }
+        try {
+            T product = load.apply(productId);
+            cachedRepresentations.loaded(product);
+            return product;
+        } catch (ProductNotFoundException e) {
+            return null;
+        }
+    }
+}
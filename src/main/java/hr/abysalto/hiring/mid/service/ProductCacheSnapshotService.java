@@ -0,0 +1,244 @@
+package hr.abysalto.hiring.mid.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import hr.abysalto.hiring.mid.cache.CacheSnapshotFile;
+import hr.abysalto.hiring.mid.cache.CachedProducts;
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.cache.LastKnownValues;
+import hr.abysalto.hiring.mid.cache.ProductInterner;
+import hr.abysalto.hiring.mid.cache.ProductPageKey;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.configuration.ProductCacheProperties;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Writes the products and productById caches to a snapshot file on shutdown and periodically, and
+ * fills them from it on startup, so a restarted node serves warm from its first request. The
+ * snapshot is loaded before the web server starts and written after it stopped taking requests.
+ * Restored values keep their original load time, and with it their expiry; those older than the
+ * cache expiry are skipped. Caffeine counts the refresh interval from when a value was put, so
+ * restored values are refreshed in the background when they fall due instead: those already due at
+ * once, the others at their original load time plus the refresh interval.
+ */
+@Component
+@ConditionalOnProperty(value = "product.cache.persistent.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheSnapshotService implements SmartLifecycle {
+
+    private static final Map<String, Types> CACHE_TYPES = Map.of(
+            CacheConfig.PRODUCTS_CACHE, new Types(ProductPageKey.class, ProductsResponse.class),
+            CacheConfig.PRODUCT_BY_ID_CACHE, new Types(Long.class, ProductDto.class));
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final CachedRepresentations cachedRepresentations;
+    private final ProductInterner productInterner;
+    private final CachedProducts cachedProducts;
+    private final LastKnownValues lastKnownValues;
+    private final ProductCacheProperties properties;
+    private final TaskScheduler taskScheduler;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        restore();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        save();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the web server, so the snapshot is loaded before and written after it serves requests.
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    @Scheduled(
+            initialDelayString = "${product.cache.persistent.save-interval:PT10M}",
+            fixedDelayString = "${product.cache.persistent.save-interval:PT10M}"
+    )
+    public void scheduledSave() {
+        if (running) {
+            save();
+        }
+    }
+
+    public synchronized void save() {
+        Path path = properties.persistent().path();
+        try {
+            List<CacheSnapshotFile.Entry> entries = new ArrayList<>();
+            for (Map.Entry<String, Types> cacheTypes : CACHE_TYPES.entrySet()) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = caffeine(cacheTypes.getKey());
+                if (cache == null) {
+                    continue;
+                }
+                cache.asMap().forEach((key, value) -> {
+                    // Values served stale are not worth surviving a restart
+                    if (!lastKnownValues.isStale(value)) {
+                        entries.add(entry(cacheTypes.getKey(), key, value));
+                    }
+                });
+            }
+            CacheSnapshotFile.write(path, Instant.now(), entries);
+            log.info("Wrote {} cache entries to {}", entries.size(), path);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not write cache snapshot to {}", path, e);
+        }
+    }
+
+    public void restore() {
+        Path path = properties.persistent().path();
+        if (!Files.exists(path)) {
+            log.info("No cache snapshot at {}, starting with empty caches", path);
+            return;
+        }
+        CacheSnapshotFile.Snapshot snapshot;
+        try {
+            snapshot = CacheSnapshotFile.read(path);
+        } catch (IOException e) {
+            log.warn("Ignoring cache snapshot at {}: {}", path, e.getMessage());
+            return;
+        }
+
+        Instant now = Instant.now();
+        int restored = 0;
+        int expired = 0;
+        Map<String, List<Object>> due = Map.of(
+                CacheConfig.PRODUCTS_CACHE, new ArrayList<>(),
+                CacheConfig.PRODUCT_BY_ID_CACHE, new ArrayList<>());
+        Map<DueRefresh, List<Object>> upcoming = new HashMap<>();
+        for (CacheSnapshotFile.Entry entry : snapshot.entries()) {
+            Types types = CACHE_TYPES.get(entry.cacheName());
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = caffeine(entry.cacheName());
+            if (types == null || cache == null) {
+                continue;
+            }
+            ProductCacheProperties.Spec spec = spec(entry.cacheName());
+            Duration age = Duration.between(entry.loadedAt(), now);
+            if (age.compareTo(spec.expireAfterWrite()) >= 0) {
+                expired++;
+                continue;
+            }
+            try {
+                Object key = objectMapper.readValue(new ByteBufferBackedInputStream(entry.key()), types.key());
+                Object value = intern(objectMapper.readValue(new ByteBufferBackedInputStream(entry.value()), types.value()));
+                cachedRepresentations.loaded(value, entry.loadedAt());
+                cache.put(key, value);
+                lastKnownValues.put(entry.cacheName(), key, value);
+                if (age.compareTo(spec.refreshAfterWrite()) >= 0) {
+                    due.get(entry.cacheName()).add(key);
+                } else {
+                    // Grouped by second, so each second of due refreshes is one scheduled task
+                    Instant dueAt = entry.loadedAt().plus(spec.refreshAfterWrite()).truncatedTo(ChronoUnit.SECONDS)
+                            .plusSeconds(1);
+                    upcoming.computeIfAbsent(new DueRefresh(entry.cacheName(), dueAt), ignored -> new ArrayList<>())
+                            .add(key);
+                }
+                restored++;
+            } catch (IOException e) {
+                log.debug("Skipping unreadable {} entry in cache snapshot", entry.cacheName(), e);
+            }
+        }
+        log.info("Restored {} cache entries from snapshot written at {}, skipped {} expired",
+                restored, snapshot.createdAt(), expired);
+        due.forEach(this::refresh);
+        upcoming.forEach((dueRefresh, keys) ->
+                taskScheduler.schedule(() -> refresh(dueRefresh.cacheName(), keys), dueRefresh.at()));
+    }
+
+    private void refresh(String cacheName, List<Object> keys) {
+        if (!(caffeine(cacheName) instanceof LoadingCache<Object, Object> cache)) {
+            return;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            // Entries evicted in the meantime are loaded again when requested, not here
+            if (!cache.asMap().containsKey(keys.get(i))) {
+                continue;
+            }
+            try {
+                cache.refresh(keys.get(i));
+            } catch (RejectedExecutionException e) {
+                // The rest are refreshed an interval later than they would have been without the restart
+                log.info("Refresh queue is full, not refreshing {} more restored {} entries", keys.size() - i, cacheName);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Products are written as their DTO and compacted again for the product cache.
+     */
+    private Object intern(Object value) {
+        if (value instanceof ProductDto product) {
+            return cachedProducts.compact(productInterner.intern(product));
+        }
+        return productInterner.intern((ProductsResponse) value);
+    }
+
+    private CacheSnapshotFile.Entry entry(String cacheName, Object key, Object value) {
+        try {
+            return new CacheSnapshotFile.Entry(cacheName, cachedRepresentations.loadedAt(value),
+                    ByteBuffer.wrap(objectMapper.writeValueAsBytes(key)),
+                    ByteBuffer.wrap(cachedRepresentations.json(value)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize " + cacheName + " key " + key, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache
+                ? (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache
+                : null;
+    }
+
+    private ProductCacheProperties.Spec spec(String cacheName) {
+        return CacheConfig.PRODUCTS_CACHE.equals(cacheName) ? properties.products() : properties.productById();
+    }
+
+    private record Types(Class<?> key, Class<?> value) {
+    }
+
+    private record DueRefresh(String cacheName, Instant at) {
+    }
+}
@@ -0,0 +1,161 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.client.OutboundPriority;
+import hr.abysalto.hiring.mid.configuration.ExecutorConfig;
+import hr.abysalto.hiring.mid.configuration.ProductCacheProperties;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.FavouriteRepository;
+import hr.abysalto.hiring.mid.repository.ProductUserCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the configured and the most popular products and the first listing pages into the caches
+ * before the application reports itself ready. Spring Boot only switches readiness to accepting
+ * traffic after all application runners returned, so the node is kept out of the load balancer
+ * until the warm-up finished or its deadline passed. Loads run concurrently on the lookup executor
+ * as background calls, so they stay within the outbound DummyJSON budget and give way to requests.
+ * At most {@code concurrency} loads are queued or running at a time: the lookup executor runs
+ * rejected tasks on the submitting thread, so a full queue would otherwise run loads on the runner
+ * thread, past the deadline. Listing pages are skipped while the catalogue snapshot serves them,
+ * because those listings do not go through the cache.
+ */
+@Component
+@ConditionalOnProperty(value = "product.cache.warm-up.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheWarmUp implements ApplicationRunner {
+
+    private final ProductService productService;
+    private final CatalogueSnapshotService catalogueSnapshotService;
+    private final FavouriteRepository favouriteRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductCacheProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Qualifier(ExecutorConfig.PRODUCT_LOOKUP_EXECUTOR)
+    private final Executor productLookupExecutor;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        ProductCacheProperties.WarmUp warmUp = properties.warmUp();
+        long start = System.nanoTime();
+        long deadline = start + warmUp.deadline().toNanos();
+        AtomicInteger failed = new AtomicInteger();
+
+        List<Runnable> loads = new ArrayList<>();
+        if (!catalogueSnapshotService.canServe(null)) {
+            loads.add(productService::getAllProducts);
+            for (int page = 0; page < warmUp.pages(); page++) {
+                int skip = page * warmUp.pageSize();
+                loads.add(() -> productService.getAllProducts(warmUp.pageSize(), skip));
+            }
+        }
+        for (Long productId : productIds(warmUp)) {
+            loads.add(() -> productService.getProductById(productId));
+        }
+
+        List<CompletableFuture<Void>> futures = OutboundPriority.callAs(OutboundPriority.BACKGROUND,
+                () -> submit(loads, new Semaphore(warmUp.concurrency()), deadline, failed));
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            log.info("Cache warm-up loaded {} of {} entries in {} ms", loads.size() - failed.get(), loads.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            long done = futures.stream().filter(CompletableFuture::isDone).count();
+            log.warn("Cache warm-up did not finish within {}, {} of {} entries done, accepting traffic",
+                    warmUp.deadline(), done, loads.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Cache warm-up failed", e.getCause());
+        }
+    }
+
+    /**
+     * Submits the loads while permits are free, waiting for one until the deadline. Loads that
+     * could not be submitted before the deadline are skipped and counted as failed.
+     */
+    private List<CompletableFuture<Void>> submit(List<Runnable> loads, Semaphore permits, long deadline,
+                                                 AtomicInteger failed) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(loads.size());
+        for (Runnable load : loads) {
+            if (!acquire(permits, deadline)) {
+                failed.addAndGet(loads.size() - futures.size());
+                log.warn("Cache warm-up deadline passed, skipping {} loads", loads.size() - futures.size());
+                break;
+            }
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    load.run();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    log.debug("Cache warm-up load failed", e);
+                } finally {
+                    permits.release();
+                }
+            }, productLookupExecutor));
+        }
+        return futures;
+    }
+
+    private static boolean acquire(Semaphore permits, long deadline) {
+        try {
+            return permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The configured ids followed by the products most users have in their favourites or carts.
+     */
+    private Set<Long> productIds(ProductCacheProperties.WarmUp warmUp) {
+        Set<Long> productIds = new LinkedHashSet<>(warmUp.productIds());
+        if (warmUp.popularProducts() <= 0) {
+            return productIds;
+        }
+        try {
+            Map<Long, Long> userCounts = new HashMap<>();
+            for (ProductUserCount count : favouriteRepository.findMostPopularProducts(warmUp.popularProducts())) {
+                userCounts.merge(count.productId(), count.userCount(), Long::sum);
+            }
+            for (ProductUserCount count : cartItemRepository.findMostPopularProducts(warmUp.popularProducts())) {
+                userCounts.merge(count.productId(), count.userCount(), Long::sum);
+            }
+            userCounts.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(warmUp.popularProducts())
+                    .forEach(entry -> productIds.add(entry.getKey()));
+        } catch (DataAccessException e) {
+            log.warn("Could not read product popularity, warming up configured products only", e);
+        }
+        return productIds;
+    }
+}
@@ -0,0 +1,314 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.cache.CachedProduct;
+import hr.abysalto.hiring.mid.cache.CachedProducts;
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.cache.LastKnownValues;
+import hr.abysalto.hiring.mid.cache.OffHeapProductTier;
+import hr.abysalto.hiring.mid.cache.ProductInterner;
+import hr.abysalto.hiring.mid.cache.ProductPageKey;
+import hr.abysalto.hiring.mid.cache.SingleFlight;
+import hr.abysalto.hiring.mid.client.CircuitBreaker;
+import hr.abysalto.hiring.mid.client.DummyJsonCalls;
+import hr.abysalto.hiring.mid.client.ProductClient;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.configuration.ExecutorConfig;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.exception.ProductNotFoundException;
+import hr.abysalto.hiring.mid.util.ProductMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Loads products from their source, either the local catalogue mirror or the DummyJSON API.
+ * Used by {@link ProductService} on a cache miss and by the product caches when they refresh
+ * an entry in the background. Products that DummyJSON reported as missing are remembered in the
+ * {@link CacheConfig#PRODUCT_NOT_FOUND_CACHE} cache and not requested again until that entry expires.
+ * Concurrent requests for the same page or product share a single DummyJSON call. Products of a
+ * fetched listing page also fill the product and summary caches. Loaded products go through the
+ * {@link ProductInterner} so that values repeating across products are shared, and single products
+ * are loaded as the {@link CachedProduct compact form} kept in the product cache.
+ * <p>
+ * Every DummyJSON call goes through {@link DummyJsonCalls}, i.e. the circuit breaker and the
+ * governor. While DummyJSON is failing or the circuit is open, the
+ * {@link LastKnownValues last known value} is returned instead, marked stale, and DummyJSON is
+ * retried in the background; a successful retry replaces the cached value.
+ */
+@Service
+@Slf4j
+public class ProductLoader {
+
+    private final ProductClient productClient;
+    private final ProductMirrorService productMirrorService;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final SingleFlight<ProductPageKey, ProductsResponse> pageFlights;
+    private final SingleFlight<Long, CachedProduct> productFlights;
+    private final SingleFlight<Long, ProductSummaryDto> summaryFlights;
+    private final DummyJsonCalls dummyJsonCalls;
+    private final LastKnownValues lastKnownValues;
+    private final OffHeapProductTier offHeapTier;
+    private final CachedRepresentations cachedRepresentations;
+    private final ProductInterner productInterner;
+    private final CachedProducts cachedProducts;
+    private final Executor productRefreshExecutor;
+    private final Set<List<Object>> revalidating = ConcurrentHashMap.newKeySet();
+
+    public ProductLoader(ProductClient productClient,
+                         ProductMirrorService productMirrorService,
+                         ObjectProvider<CacheManager> cacheManager,
+                         MeterRegistry meterRegistry,
+                         DummyJsonCalls dummyJsonCalls,
+                         LastKnownValues lastKnownValues,
+                         OffHeapProductTier offHeapTier,
+                         CachedRepresentations cachedRepresentations,
+                         ProductInterner productInterner,
+                         CachedProducts cachedProducts,
+                         @Qualifier(ExecutorConfig.PRODUCT_REFRESH_EXECUTOR) Executor productRefreshExecutor) {
+        this.productClient = productClient;
+        this.productMirrorService = productMirrorService;
+        this.cacheManager = cacheManager;
+        this.dummyJsonCalls = dummyJsonCalls;
+        this.lastKnownValues = lastKnownValues;
+        this.offHeapTier = offHeapTier;
+        this.cachedRepresentations = cachedRepresentations;
+        this.productInterner = productInterner;
+        this.cachedProducts = cachedProducts;
+        this.productRefreshExecutor = productRefreshExecutor;
+        this.pageFlights = new SingleFlight<>("getAllProducts", meterRegistry);
+        this.productFlights = new SingleFlight<>("getProductById", meterRegistry);
+        this.summaryFlights = new SingleFlight<>("getProductSummaryById", meterRegistry);
+    }
+
+    public ProductsResponse loadProducts(ProductPageKey key) {
+        if (productMirrorService.canServe(key.sortBy())) {
+            log.info("Fetching products from local catalogue mirror with limit: {}, skip: {}, sortBy: {}, order: {}",
+                    key.limit(), key.skip(), key.sortBy(), key.order());
+            return productInterner.intern(
+                    productMirrorService.getProducts(key.limit(), key.skip(), key.sortBy(), key.order()));
+        }
+        return withLastKnownValue(CacheConfig.PRODUCTS_CACHE, key,
+                () -> pageFlights.execute(key, () -> fetchProducts(key)));
+    }
+
+    /**
+     * Loads the whole catalogue for the catalogue snapshot. Its products are interned, but unlike
+     * those of a listing page they do not fill the product and summary caches, and the catalogue is
+     * not kept as a last known value, so the snapshot holds the only copy of it.
+     */
+    public ProductsResponse loadCatalogue() {
+        if (productMirrorService.canServe(null)) {
+            log.info("Fetching the whole catalogue from local catalogue mirror");
+            return productInterner.intern(productMirrorService.getProducts(0, 0, null, null));
+        }
+        log.info("Fetching the whole catalogue from DummyJSON API");
+        return productInterner.intern(dummyJsonCalls.call(() -> productClient.getAllProducts(0, 0, null, null)));
+    }
+
+    public CachedProduct loadProduct(Long productId) {
+        if (isKnownMissing(productId)) {
+            log.debug("Product with id: {} is known to be missing, skipping DummyJSON API", productId);
+            throw ProductNotFoundException.knownMissing(productId);
+        }
+        if (productMirrorService.isActive()) {
+            log.info("Fetching product with id: {} from local catalogue mirror", productId);
+            return productMirrorService.findProductById(productId)
+                    .map(productInterner::intern)
+                    .map(cachedProducts::compact)
+                    .orElseThrow(() -> ProductNotFoundException.forId(productId));
+        }
+        return withLastKnownValue(CacheConfig.PRODUCT_BY_ID_CACHE, productId,
+                () -> productFlights.execute(productId, () -> fetchProduct(productId)));
+    }
+
+    public ProductSummaryDto loadProductSummary(Long productId) {
+        if (isKnownMissing(productId)) {
+            log.debug("Product with id: {} is known to be missing, skipping DummyJSON API", productId);
+            throw ProductNotFoundException.knownMissing(productId);
+        }
+        if (productMirrorService.isActive()) {
+            log.info("Fetching product summary with id: {} from local catalogue mirror", productId);
+            return productMirrorService.findProductById(productId)
+                    .map(ProductMapper::mapToSummary)
+                    .orElseThrow(() -> ProductNotFoundException.forId(productId));
+        }
+        return withLastKnownValue(CacheConfig.PRODUCT_SUMMARY_BY_ID_CACHE, productId,
+                () -> summaryFlights.execute(productId, () -> fetchProductSummary(productId)));
+    }
+
+    private ProductsResponse fetchProducts(ProductPageKey key) {
+        ProductsResponse response = productInterner.intern(requestProducts(key));
+        cacheListedProducts(response);
+        return response;
+    }
+
+    private ProductsResponse requestProducts(ProductPageKey key) {
+        if (key.isDefault()) {
+            log.info("Fetching all products from DummyJSON API");
+            return dummyJsonCalls.call(() -> productClient.getAllProducts());
+        }
+        log.info("Fetching products from DummyJSON API with limit: {}, skip: {}, sortBy: {}, order: {}",
+                key.limit(), key.skip(), key.sortBy(), key.order());
+        return dummyJsonCalls.call(() -> productClient.getAllProducts(key.limit(), key.skip(), key.sortBy(), key.order()));
+    }
+
+    private CachedProduct fetchProduct(Long productId) {
+        log.info("Fetching product with id: {} from DummyJSON API", productId);
+        try {
+            return cachedProducts.compact(
+                    productInterner.intern(dummyJsonCalls.call(() -> productClient.getProductById(productId))));
+        } catch (HttpClientErrorException.NotFound e) {
+            log.warn("Product with id: {} not found", productId);
+            markMissing(productId);
+            throw ProductNotFoundException.forId(productId);
+        }
+    }
+
+    private ProductSummaryDto fetchProductSummary(Long productId) {
+        log.info("Fetching product summary with id: {} from DummyJSON API", productId);
+        try {
+            return dummyJsonCalls.call(() -> productClient.getProductSummaryById(productId, ProductSummaryDto.SELECT));
+        } catch (HttpClientErrorException.NotFound e) {
+            log.warn("Product with id: {} not found", productId);
+            markMissing(productId);
+            throw ProductNotFoundException.forId(productId);
+        }
+    }
+
+    private <T> T withLastKnownValue(String cacheName, Object key, Supplier<T> fetch) {
+        try {
+            T value = fetch.get();
+            lastKnownValues.put(cacheName, key, value);
+            offHeapTier.forget(cacheName, key);
+            return value;
+        } catch (ProductNotFoundException e) {
+            lastKnownValues.remove(cacheName, key);
+            offHeapTier.forget(cacheName, key);
+            throw e;
+        } catch (RuntimeException e) {
+            T stale = CircuitBreaker.isUpstreamFailure(e) ? lastKnownValue(cacheName, key) : null;
+            if (stale == null) {
+                throw e;
+            }
+            log.warn("DummyJSON is unavailable ({}), serving stale {} entry with key: {}", e.getMessage(), cacheName, key);
+            lastKnownValues.markStale(stale);
+            revalidate(cacheName, key, fetch);
+            return stale;
+        }
+    }
+
+    /**
+     * The last known value is on the heap, or in the off-heap tier once its cache entry was moved
+     * there.
+     */
+    private <T> T lastKnownValue(String cacheName, Object key) {
+        T value = lastKnownValues.get(cacheName, key);
+        return value != null ? value : offHeapTier.lastKnown(cacheName, key);
+    }
+
+    /**
+     * Retries DummyJSON once in the background and puts a fresh value into the cache. At most one
+     * retry per key runs at a time; a failed retry is attempted again when the stale value is next
+     * served.
+     */
+    private <T> void revalidate(String cacheName, Object key, Supplier<T> fetch) {
+        List<Object> revalidation = List.of(cacheName, key);
+        if (!revalidating.add(revalidation)) {
+            return;
+        }
+        try {
+            productRefreshExecutor.execute(() -> {
+                try {
+                    T value = fetch.get();
+                    lastKnownValues.put(cacheName, key, value);
+                    offHeapTier.forget(cacheName, key);
+                    cachedRepresentations.loaded(value);
+                    Cache cache = cacheManager.getObject().getCache(cacheName);
+                    if (cache != null) {
+                        cache.put(key, value);
+                    }
+                    log.info("Revalidated stale {} entry with key: {}", cacheName, key);
+                } catch (ProductNotFoundException e) {
+                    lastKnownValues.remove(cacheName, key);
+                    offHeapTier.forget(cacheName, key);
+                    Cache cache = cacheManager.getObject().getCache(cacheName);
+                    if (cache != null) {
+                        cache.evict(key);
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Revalidating stale {} entry with key: {} failed", cacheName, key, e);
+                } finally {
+                    revalidating.remove(revalidation);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(revalidation);
+        }
+    }
+
+    /**
+     * Listing pages carry full products, so every listed product is put into the product cache in its
+     * compact form, into the summary cache as its summary, and is no longer remembered as missing.
+     * Opening a listed product or adding it to a cart then needs no DummyJSON call.
+     */
+    private void cacheListedProducts(ProductsResponse response) {
+        if (response == null || response.getProducts() == null) {
+            return;
+        }
+        CacheManager manager = cacheManager.getObject();
+        Cache productCache = manager.getCache(CacheConfig.PRODUCT_BY_ID_CACHE);
+        Cache summaryCache = manager.getCache(CacheConfig.PRODUCT_SUMMARY_BY_ID_CACHE);
+        Cache notFoundCache = notFoundCache();
+        for (ProductDto product : response.getProducts()) {
+            if (product == null || product.getId() == null) {
+                continue;
+            }
+            if (productCache != null) {
+                CachedProduct cachedProduct = cachedProducts.compact(product);
+                cachedRepresentations.loaded(cachedProduct);
+                productCache.put(product.getId(), cachedProduct);
+            }
+            if (summaryCache != null) {
+                ProductSummaryDto summary = ProductMapper.mapToSummary(product);
+                cachedRepresentations.loaded(summary);
+                summaryCache.put(product.getId(), summary);
+            }
+            if (notFoundCache != null) {
+                notFoundCache.evict(product.getId());
+            }
+        }
+    }
+
+    /**
+     * Whether DummyJSON recently answered with 404 for the given product id.
+     */
+    public boolean isKnownMissing(Long productId) {
+        Cache notFoundCache = notFoundCache();
+        return notFoundCache != null && notFoundCache.get(productId) != null;
+    }
+
+    private void markMissing(Long productId) {
+        Cache notFoundCache = notFoundCache();
+        if (notFoundCache != null) {
+            notFoundCache.put(productId, Boolean.TRUE);
+        }
+    }
+
+    private Cache notFoundCache() {
+        return cacheManager.getObject().getCache(CacheConfig.PRODUCT_NOT_FOUND_CACHE);
+    }
+}
@@ -0,0 +1,133 @@
+package hr.abysalto.hiring.mid.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.repository.ProductRepository;
+import hr.abysalto.hiring.mid.repository.entity.Product;
+import hr.abysalto.hiring.mid.util.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jdbc.core.JdbcAggregateTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves the product catalogue from the local {@code PRODUCTS} table. The mirror becomes active
+ * after the first successful synchronization and stays inactive when the mirror mode is disabled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductMirrorService {
+
+    private static final int DEFAULT_LIMIT = 30;
+
+    private static final Set<String> SORTABLE_FIELDS = Set.of(
+            "id", "title", "category", "price", "discountPercentage", "rating", "stock",
+            "brand", "sku", "weight", "availabilityStatus", "minimumOrderQuantity"
+    );
+
+    private final ProductRepository productRepository;
+    private final JdbcAggregateTemplate jdbcAggregateTemplate;
+    private final ObjectMapper objectMapper;
+
+    private volatile Instant lastSynchronizedAt;
+
+    public record SyncResult(int inserted, int updated, int deleted, int unchanged) { }
+
+    public boolean isActive() {
+        return lastSynchronizedAt != null;
+    }
+
+    /**
+     * Whether a listing sorted by the given field can be answered from the mirror.
+     */
+    public boolean canServe(String sortBy) {
+        return isActive() && (sortBy == null || SORTABLE_FIELDS.contains(sortBy));
+    }
+
+    public ProductsResponse getProducts(Integer limit, Integer skip, String sortBy, String order) {
+        int offset = skip != null ? skip : 0;
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortBy != null ? sortBy : "id").and(Sort.by("id"));
+
+        Query query = Query.empty().sort(sort).offset(offset);
+        if (size > 0) {
+            query = query.limit(size);
+        }
+
+        List<ProductDto> products = jdbcAggregateTemplate.findAll(query, Product.class).stream()
+                .map(product -> ProductMapper.mapToDto(product, objectMapper))
+                .toList();
+
+        return ProductMapper.mapToProductsResponse(products, (int) productRepository.count(), offset,
+                size > 0 ? size : products.size());
+    }
+
+    public Optional<ProductDto> findProductById(Long productId) {
+        return productRepository.findById(productId)
+                .map(product -> ProductMapper.mapToDto(product, objectMapper));
+    }
+
+    /**
+     * Brings the mirror in line with the given catalogue. Only products that are new, whose
+     * {@code meta.updatedAt} changed or that disappeared upstream are written. Products missing from
+     * the catalogue are only deleted when it is known to be complete.
+     */
+    @Transactional
+    public SyncResult applyCatalogue(List<ProductDto> catalogue, boolean complete) {
+        Map<Long, String> versions = new HashMap<>();
+        productRepository.findAllVersions()
+                .forEach(version -> versions.put(version.id(), version.metaUpdatedAt()));
+
+        List<Product> inserts = new ArrayList<>();
+        List<Product> updates = new ArrayList<>();
+        int unchanged = 0;
+
+        for (ProductDto product : catalogue) {
+            if (!versions.containsKey(product.getId())) {
+                inserts.add(ProductMapper.mapToProduct(product, objectMapper));
+            } else if (!Objects.equals(versions.get(product.getId()), updatedAt(product))) {
+                updates.add(ProductMapper.mapToProduct(product, objectMapper));
+            } else {
+                unchanged++;
+            }
+            versions.remove(product.getId());
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcAggregateTemplate.insertAll(inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcAggregateTemplate.updateAll(updates);
+        }
+        int deleted = 0;
+        if (complete && !versions.isEmpty()) {
+            productRepository.deleteByIdIn(versions.keySet());
+            deleted = versions.size();
+        }
+
+        return new SyncResult(inserts.size(), updates.size(), deleted, unchanged);
+    }
+
+    public void markSynchronized() {
+        lastSynchronizedAt = Instant.now();
+    }
+
+    private static String updatedAt(ProductDto product) {
+        return product.getMeta() != null ? product.getMeta().getUpdatedAt() : null;
+    }
+}
@@ -0,0 +1,129 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.client.DummyJsonCalls;
+import hr.abysalto.hiring.mid.client.OutboundPriority;
+import hr.abysalto.hiring.mid.client.ProductClient;
+import hr.abysalto.hiring.mid.configuration.ExecutorConfig;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically copies the DummyJSON catalogue into the local product mirror. Pages are fetched
+ * concurrently and the mirror is only touched when the whole catalogue was fetched successfully.
+ * Pages are fetched by offset, so a product added or removed upstream during a sync shifts the
+ * later pages: fetched products are de-duplicated by id, and products missing from the fetched
+ * catalogue are only deleted when every page reported the same total and the fetched catalogue
+ * holds that many distinct products.
+ */
+@Component
+@ConditionalOnProperty(value = "product.mirror.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductMirrorSynchronizer {
+
+    private final ProductClient productClient;
+    private final ProductMirrorService productMirrorService;
+    private final DummyJsonCalls dummyJsonCalls;
+
+    @Qualifier(ExecutorConfig.PRODUCT_LOOKUP_EXECUTOR)
+    private final Executor productLookupExecutor;
+
+    @Value("${product.mirror.page-size:100}")
+    private int pageSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(
+            initialDelayString = "${product.mirror.sync-initial-delay:PT0S}",
+            fixedDelayString = "${product.mirror.sync-interval:PT15M}"
+    )
+    public void scheduledSynchronize() {
+        try {
+            OutboundPriority.callAs(OutboundPriority.BACKGROUND, this::synchronize);
+        } catch (RuntimeException e) {
+            log.error("Product catalogue synchronization failed, keeping the current mirror", e);
+        }
+    }
+
+    public Optional<ProductMirrorService.SyncResult> synchronize() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Product catalogue synchronization already in progress, skipping");
+            return Optional.empty();
+        }
+        try {
+            FetchedCatalogue fetched = fetchCatalogue();
+            List<ProductDto> catalogue = fetched.products();
+            boolean complete = fetched.totalUnchanged() && catalogue.size() == fetched.total();
+            if (!complete) {
+                log.warn("Fetched {} distinct products but DummyJSON reported {}, the catalogue changed during "
+                        + "synchronization, not deleting missing products", catalogue.size(), fetched.total());
+            }
+            ProductMirrorService.SyncResult result = productMirrorService.applyCatalogue(catalogue, complete);
+            productMirrorService.markSynchronized();
+            log.info("Synchronized {} products: {} inserted, {} updated, {} deleted, {} unchanged",
+                    catalogue.size(), result.inserted(), result.updated(), result.deleted(), result.unchanged());
+            return Optional.of(result);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private FetchedCatalogue fetchCatalogue() {
+        log.info("Fetching product catalogue from DummyJSON API with page size: {}", pageSize);
+        ProductsResponse firstPage = dummyJsonCalls.call(() -> productClient.getAllProducts(pageSize, 0));
+        Map<Long, ProductDto> catalogue = new LinkedHashMap<>();
+        firstPage.getProducts().forEach(product -> catalogue.putIfAbsent(product.getId(), product));
+        int total = firstPage.getTotal() != null ? firstPage.getTotal() : catalogue.size();
+        int lastTotal = total;
+        boolean totalUnchanged = true;
+
+        List<CompletableFuture<ProductsResponse>> pages = new ArrayList<>();
+        for (int skip = pageSize; skip < total; skip += pageSize) {
+            int pageSkip = skip;
+            pages.add(CompletableFuture.supplyAsync(
+                    () -> dummyJsonCalls.call(() -> productClient.getAllProducts(pageSize, pageSkip)),
+                    productLookupExecutor));
+        }
+
+        try {
+            for (CompletableFuture<ProductsResponse> page : pages) {
+                ProductsResponse response = page.join();
+                response.getProducts().forEach(product -> catalogue.putIfAbsent(product.getId(), product));
+                if (response.getTotal() != null) {
+                    totalUnchanged &= response.getTotal() == total;
+                    lastTotal = response.getTotal();
+                }
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return new FetchedCatalogue(new ArrayList<>(catalogue.values()), lastTotal, totalUnchanged);
+    }
+
+    /**
+     * Distinct fetched products, the catalogue size reported by the last page and whether every page
+     * reported the same size.
+     */
+    private record FetchedCatalogue(List<ProductDto> products, int total, boolean totalUnchanged) {
+    }
+}
@@ -0,0 +1,35 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.catalogue.CatalogueSnapshot;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.exception.InvalidRequestParameterException;
+import hr.abysalto.hiring.mid.util.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchService {
+
+    private final CatalogueSnapshotService catalogueSnapshotService;
+
+    public ProductsResponse searchProducts(String query, Integer limit, Integer skip) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestParameterException("q", query, "Search query must not be blank");
+        }
+        int offset = skip != null ? skip : 0;
+        int size = limit != null ? limit : 30;
+
+        CatalogueSnapshot snapshot = catalogueSnapshotService.require();
+        CatalogueSnapshot.SearchPage page = snapshot.search(query, offset, size);
+        log.info("Search for '{}' matched {} products", query, page.total());
+
+        List<ProductDto> products = page.products();
+        return ProductMapper.mapToProductsResponse(products, page.total(), offset, size > 0 ? size : products.size());
+    }
+}
@@ -1,60 +1,92 @@
 package hr.abysalto.hiring.mid.service;
 
-import hr.abysalto.hiring.mid.client.ProductClient;
+import hr.abysalto.hiring.mid.cache.CachedProduct;
+import hr.abysalto.hiring.mid.cache.ProductPageKey;
 import hr.abysalto.hiring.mid.configuration.CacheConfig;
-import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductFilter;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
 import hr.abysalto.hiring.mid.dto.ProductsResponse;
 import hr.abysalto.hiring.mid.exception.ProductNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
 
-    private final ProductClient productClient;
+    private final ProductLoader productLoader;
+    private final CatalogueSnapshotService catalogueSnapshotService;
+    private final CacheManager cacheManager;
 
-    @Cacheable(value = CacheConfig.PRODUCTS_CACHE)
+    // Listings the catalogue snapshot can answer are sliced from it and bypass the listing cache
+    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "T(hr.abysalto.hiring.mid.cache.ProductPageKey).DEFAULT",
+            condition = "!@catalogueSnapshotService.canServe(null)")
     public ProductsResponse getAllProducts() {
-        log.info("Fetching all products from DummyJSON API");
-        return productClient.getAllProducts();
+        if (catalogueSnapshotService.canServe(null)) {
+            return catalogueSnapshotService.getProducts(null, null, null, null);
+        }
+        return productLoader.loadProducts(ProductPageKey.DEFAULT);
     }
 
-    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "'products_' + #limit + '_' + #skip")
+    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "T(hr.abysalto.hiring.mid.cache.ProductPageKey).of(#limit, #skip, null, null)",
+            condition = "!@catalogueSnapshotService.canServe(null)")
     public ProductsResponse getAllProducts(Integer limit, Integer skip) {
-        log.info("Fetching products from DummyJSON API with limit: {} and skip: {}", limit, skip);
-        return productClient.getAllProducts(limit, skip);
+        if (catalogueSnapshotService.canServe(null)) {
+            return catalogueSnapshotService.getProducts(limit, skip, null, null);
+        }
+        return productLoader.loadProducts(ProductPageKey.of(limit, skip, null, null));
     }
 
-    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "'products_' + #limit + '_' + #skip + '_' + #sortBy + '_' + #order")
+    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "T(hr.abysalto.hiring.mid.cache.ProductPageKey).of(#limit, #skip, #sortBy, #order)",
+            condition = "!@catalogueSnapshotService.canServe(#sortBy)")
     public ProductsResponse getAllProducts(Integer limit, Integer skip, String sortBy, String order) {
-        log.info("Fetching products from DummyJSON API with limit: {}, skip: {}, sortBy: {}, order: {}",
-                limit, skip, sortBy, order);
-        return productClient.getAllProducts(limit, skip, sortBy, order);
+        if (catalogueSnapshotService.canServe(sortBy)) {
+            return catalogueSnapshotService.getProducts(limit, skip, sortBy, order);
+        }
+        return productLoader.loadProducts(ProductPageKey.of(limit, skip, sortBy, order));
     }
 
+    public ProductsResponse getFilteredProducts(ProductFilter filter, Integer limit, Integer skip, String sortBy,
+                                                String order) {
+        return catalogueSnapshotService.getFilteredProducts(filter, limit, skip, sortBy, order);
+    }
+
+    // The productById cache loads misses itself, so this only runs without a Caffeine cache manager
     @Cacheable(value = CacheConfig.PRODUCT_BY_ID_CACHE, key = "#productId")
-    public ProductDto getProductById(Long productId) {
-        log.info("Fetching product with id: {} from DummyJSON API", productId);
-        try {
-            return productClient.getProductById(productId);
-        } catch (HttpClientErrorException.NotFound e) {
-            log.warn("Product with id: {} not found", productId);
-            throw ProductNotFoundException.forId(productId);
-        }
+    public CachedProduct getProductById(Long productId) {
+        return productLoader.loadProduct(productId);
     }
 
+    @Cacheable(value = CacheConfig.PRODUCT_SUMMARY_BY_ID_CACHE, key = "#productId")
+    public ProductSummaryDto getProductSummaryById(Long productId) {
+        return productLoader.loadProductSummary(productId);
+    }
+
+    /**
+     * Checks existence by loading the product summary, which is much smaller than the full product.
+     * The summary cache is used directly because calls within this class bypass the caching proxy.
+     */
     public boolean productExists(Long productId) {
+        if (productLoader.isKnownMissing(productId)) {
+            return false;
+        }
+        Cache summaryCache = cacheManager.getCache(CacheConfig.PRODUCT_SUMMARY_BY_ID_CACHE);
         try {
-            getProductById(productId);
+            summaryCache.get(productId, () -> productLoader.loadProductSummary(productId));
             return true;
-        } catch (ProductNotFoundException e) {
-            return false;
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof ProductNotFoundException) {
+                return false;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 }
-
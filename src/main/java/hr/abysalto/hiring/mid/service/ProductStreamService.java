@@ -0,0 +1,169 @@
+package hr.abysalto.hiring.mid.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.client.DummyJsonCalls;
+import hr.abysalto.hiring.mid.client.ProductStreamClient;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.exception.InvalidRequestParameterException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams product listings of any size with memory bounded by the chunk size per request. Pages are
+ * requested from DummyJSON in chunks, read with the Jackson streaming parser and written to the
+ * client once the upstream call finished, so a slow or disconnected client neither holds an
+ * upstream connection nor counts as a DummyJSON failure. Listings the catalogue snapshot can answer
+ * are written straight from the snapshot. When DummyJSON fails after the first chunk was written,
+ * the document is completed with an {@code error} field instead of being cut off.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductStreamService {
+
+    private final ProductStreamClient productStreamClient;
+    private final DummyJsonCalls dummyJsonCalls;
+    private final CatalogueSnapshotService catalogueSnapshotService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.stream.chunk-size:100}")
+    private int chunkSize;
+
+    /**
+     * Returns a body writing the same document as a product listing, with {@code limit} 0 meaning
+     * all products from {@code skip} on.
+     */
+    public StreamingResponseBody streamProducts(Integer limit, Integer skip, String sortBy, String order) {
+        int size = limit != null ? limit : 0;
+        int offset = skip != null ? skip : 0;
+        if (size < 0) {
+            throw new InvalidRequestParameterException("limit", String.valueOf(limit), "Limit must not be negative");
+        }
+        if (offset < 0) {
+            throw new InvalidRequestParameterException("skip", String.valueOf(skip), "Skip must not be negative");
+        }
+
+        if (catalogueSnapshotService.canServe(sortBy)) {
+            ProductsResponse page = catalogueSnapshotService.getProducts(size, offset, sortBy, order);
+            return out -> writeSnapshotPage(out, page);
+        }
+        return out -> streamFromUpstream(out, size, offset, sortBy, order);
+    }
+
+    private void writeSnapshotPage(OutputStream out, ProductsResponse page) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("products");
+            for (ProductDto product : page.getProducts()) {
+                generator.writeObject(product);
+            }
+            generator.writeEndArray();
+            writePageFields(generator, page.getTotal(), page.getSkip(), page.getProducts().size());
+        }
+    }
+
+    private void streamFromUpstream(OutputStream out, int limit, int skip, String sortBy, String order)
+            throws IOException {
+        // Not closed on failure, so nothing is flushed and an error in the first chunk can still
+        // be answered with a problem detail
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("products");
+
+        int written = 0;
+        int total = 0;
+        boolean flushed = false;
+        try {
+            while (limit == 0 || written < limit) {
+                int requested = limit == 0 ? chunkSize : Math.min(chunkSize, limit - written);
+                int chunkSkip = skip + written;
+                Chunk chunk = dummyJsonCalls.call(() -> productStreamClient.getAllProducts(
+                        requested, chunkSkip, sortBy, order, body -> readProducts(body, requested)));
+                // Written outside the upstream call, a failing client write is not an upstream failure
+                for (ProductDto product : chunk.products()) {
+                    generator.writeObject(product);
+                }
+                written += chunk.products().size();
+                total = chunk.total();
+                generator.flush();
+                flushed = true;
+                if (chunk.products().size() < requested || skip + written >= total) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            if (!flushed || !generator.getOutputContext().inArray()) {
+                throw e;
+            }
+            // The 200 is already sent, so the document is completed and marked as incomplete instead
+            int streamed = generator.getOutputContext().getEntryCount();
+            log.warn("Upstream failed after streaming {} products with skip: {}, ending the stream with an error",
+                    streamed, skip, e);
+            generator.writeEndArray();
+            generator.writeStringField("error", "Upstream failed after " + streamed + " products, the listing is incomplete");
+            writePageFields(generator, total, skip, streamed);
+            generator.close();
+            return;
+        }
+        log.info("Streamed {} products with skip: {}, sortBy: {}, order: {}", written, skip, sortBy, order);
+
+        generator.writeEndArray();
+        writePageFields(generator, total, skip, written);
+        generator.close();
+    }
+
+    /**
+     * Reads at most {@code limit} products of one upstream page and the catalogue total. Products
+     * past the limit are skipped, so an upstream ignoring the limit cannot grow the buffer.
+     */
+    private Chunk readProducts(InputStream body, int limit) throws IOException {
+        List<ProductDto> products = new ArrayList<>(limit);
+        int total = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a product page but got " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("products".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        if (products.size() < limit) {
+                            products.add(parser.readValueAs(ProductDto.class));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("total".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    total = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new Chunk(products, total);
+    }
+
+    private static void writePageFields(JsonGenerator generator, int total, int skip, int limit) throws IOException {
+        generator.writeNumberField("total", total);
+        generator.writeNumberField("skip", skip);
+        generator.writeNumberField("limit", limit);
+        generator.writeEndObject();
+    }
+
+    private record Chunk(List<ProductDto> products, int total) {
+    }
+}
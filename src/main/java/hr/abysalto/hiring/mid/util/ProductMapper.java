@@ -0,0 +1,142 @@
+package hr.abysalto.hiring.mid.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.cache.CachedProduct;
+import hr.abysalto.hiring.mid.dto.ProductBatchResponse;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.repository.entity.Product;
+
+import java.util.List;
+
+public class ProductMapper {
+
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() { };
+    private static final TypeReference<List<ProductDto.ReviewDto>> REVIEW_LIST = new TypeReference<>() { };
+
+    public static ProductBatchResponse mapToBatchResponse(List<CachedProduct> products, List<Long> notFound) {
+        return ProductBatchResponse.builder()
+                .products(products.stream().map(CachedProduct::toDto).toList())
+                .notFound(notFound)
+                .build();
+    }
+
+    public static ProductSummaryDto mapToSummary(ProductDto product) {
+        return ProductSummaryDto.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .price(product.getPrice())
+                .thumbnail(product.getThumbnail())
+                .build();
+    }
+
+    public static ProductsResponse mapToProductsResponse(List<ProductDto> products, int total, int skip, int limit) {
+        return ProductsResponse.builder()
+                .products(products)
+                .total(total)
+                .skip(skip)
+                .limit(limit)
+                .build();
+    }
+
+    public static Product mapToProduct(ProductDto dto, ObjectMapper objectMapper) {
+        ProductDto.DimensionsDto dimensions = dto.getDimensions();
+        ProductDto.MetaDto meta = dto.getMeta();
+        return Product.builder()
+                .id(dto.getId())
+                .title(dto.getTitle())
+                .description(dto.getDescription())
+                .category(dto.getCategory())
+                .price(dto.getPrice())
+                .discountPercentage(dto.getDiscountPercentage())
+                .rating(dto.getRating())
+                .stock(dto.getStock())
+                .tags(writeJson(dto.getTags(), objectMapper))
+                .brand(dto.getBrand())
+                .sku(dto.getSku())
+                .weight(dto.getWeight())
+                .dimensions(dimensions == null ? null : Product.Dimensions.builder()
+                        .width(dimensions.getWidth())
+                        .height(dimensions.getHeight())
+                        .depth(dimensions.getDepth())
+                        .build())
+                .warrantyInformation(dto.getWarrantyInformation())
+                .shippingInformation(dto.getShippingInformation())
+                .availabilityStatus(dto.getAvailabilityStatus())
+                .reviews(writeJson(dto.getReviews(), objectMapper))
+                .returnPolicy(dto.getReturnPolicy())
+                .minimumOrderQuantity(dto.getMinimumOrderQuantity())
+                .meta(meta == null ? null : Product.Meta.builder()
+                        .createdAt(meta.getCreatedAt())
+                        .updatedAt(meta.getUpdatedAt())
+                        .barcode(meta.getBarcode())
+                        .qrCode(meta.getQrCode())
+                        .build())
+                .images(writeJson(dto.getImages(), objectMapper))
+                .thumbnail(dto.getThumbnail())
+                .build();
+    }
+
+    public static ProductDto mapToDto(Product product, ObjectMapper objectMapper) {
+        Product.Dimensions dimensions = product.getDimensions();
+        Product.Meta meta = product.getMeta();
+        return ProductDto.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .category(product.getCategory())
+                .price(product.getPrice())
+                .discountPercentage(product.getDiscountPercentage())
+                .rating(product.getRating())
+                .stock(product.getStock())
+                .tags(readJson(product.getTags(), STRING_LIST, objectMapper))
+                .brand(product.getBrand())
+                .sku(product.getSku())
+                .weight(product.getWeight())
+                .dimensions(dimensions == null ? null : ProductDto.DimensionsDto.builder()
+                        .width(dimensions.getWidth())
+                        .height(dimensions.getHeight())
+                        .depth(dimensions.getDepth())
+                        .build())
+                .warrantyInformation(product.getWarrantyInformation())
+                .shippingInformation(product.getShippingInformation())
+                .availabilityStatus(product.getAvailabilityStatus())
+                .reviews(readJson(product.getReviews(), REVIEW_LIST, objectMapper))
+                .returnPolicy(product.getReturnPolicy())
+                .minimumOrderQuantity(product.getMinimumOrderQuantity())
+                .meta(meta == null ? null : ProductDto.MetaDto.builder()
+                        .createdAt(meta.getCreatedAt())
+                        .updatedAt(meta.getUpdatedAt())
+                        .barcode(meta.getBarcode())
+                        .qrCode(meta.getQrCode())
+                        .build())
+                .images(readJson(product.getImages(), STRING_LIST, objectMapper))
+                .thumbnail(product.getThumbnail())
+                .build();
+    }
+
+    private static String writeJson(Object value, ObjectMapper objectMapper) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize product attribute", e);
+        }
+    }
+
+    private static <T> T readJson(String json, TypeReference<T> type, ObjectMapper objectMapper) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to deserialize product attribute", e);
+        }
+    }
+}
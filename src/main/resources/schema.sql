@@ -32,3 +32,41 @@ CREATE TABLE IF NOT EXISTS CART_ITEMS (
 
 CREATE INDEX IF NOT EXISTS IDX_CART_ITEMS_USER_ID ON CART_ITEMS(USER_ID);
 
+
+CREATE TABLE IF NOT EXISTS PRODUCTS (
+    ID BIGINT PRIMARY KEY,
+    TITLE VARCHAR(255),
+    DESCRIPTION VARCHAR(4000),
+    CATEGORY VARCHAR(100),
+    PRICE DOUBLE PRECISION,
+    DISCOUNT_PERCENTAGE DOUBLE PRECISION,
+    RATING DOUBLE PRECISION,
+    STOCK INT,
+    TAGS CLOB,
+    BRAND VARCHAR(100),
+    SKU VARCHAR(100),
+    WEIGHT DOUBLE PRECISION,
+    DIMENSIONS_WIDTH DOUBLE PRECISION,
+    DIMENSIONS_HEIGHT DOUBLE PRECISION,
+    DIMENSIONS_DEPTH DOUBLE PRECISION,
+    WARRANTY_INFORMATION VARCHAR(255),
+    SHIPPING_INFORMATION VARCHAR(255),
+    AVAILABILITY_STATUS VARCHAR(50),
+    REVIEWS CLOB,
+    RETURN_POLICY VARCHAR(255),
+    MINIMUM_ORDER_QUANTITY INT,
+    META_CREATED_AT VARCHAR(50),
+    META_UPDATED_AT VARCHAR(50),
+    META_BARCODE VARCHAR(50),
+    META_QR_CODE VARCHAR(255),
+    IMAGES CLOB,
+    THUMBNAIL VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_PRODUCTS_CATEGORY ON PRODUCTS(CATEGORY);
+
+CREATE INDEX IF NOT EXISTS IDX_PRODUCTS_PRICE ON PRODUCTS(PRICE);
+
+CREATE INDEX IF NOT EXISTS IDX_PRODUCTS_RATING ON PRODUCTS(RATING);
+
+CREATE INDEX IF NOT EXISTS IDX_PRODUCTS_TITLE ON PRODUCTS(TITLE);
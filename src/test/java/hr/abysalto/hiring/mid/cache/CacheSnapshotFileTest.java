@@ -0,0 +1,123 @@
+package hr.abysalto.hiring.mid.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheSnapshotFileTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-01-15T10:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer bytes) {
+        return StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+    }
+
+    private Path writeSnapshot() throws IOException {
+        Path path = directory.resolve("product-cache.snapshot");
+        CacheSnapshotFile.write(path, CREATED_AT, List.of(
+                new CacheSnapshotFile.Entry("productById", CREATED_AT.minusSeconds(60), bytes("1"),
+                        bytes("{\"id\":1,\"title\":\"iPhone 15\"}")),
+                new CacheSnapshotFile.Entry("products", CREATED_AT.minusSeconds(120), bytes("{\"limit\":30}"),
+                        bytes("{\"products\":[],\"total\":0}"))));
+        return path;
+    }
+
+    @Test
+    @DisplayName("Should read back the entries it wrote")
+    void shouldReadBackWrittenEntries() throws IOException {
+        CacheSnapshotFile.Snapshot snapshot = CacheSnapshotFile.read(writeSnapshot());
+
+        assertThat(snapshot.createdAt()).isEqualTo(CREATED_AT);
+        assertThat(snapshot.entries()).hasSize(2);
+        CacheSnapshotFile.Entry product = snapshot.entries().get(0);
+        assertThat(product.cacheName()).isEqualTo("productById");
+        assertThat(product.loadedAt()).isEqualTo(CREATED_AT.minusSeconds(60));
+        assertThat(text(product.key())).isEqualTo("1");
+        assertThat(text(product.value())).isEqualTo("{\"id\":1,\"title\":\"iPhone 15\"}");
+        CacheSnapshotFile.Entry page = snapshot.entries().get(1);
+        assertThat(page.cacheName()).isEqualTo("products");
+        assertThat(text(page.key())).isEqualTo("{\"limit\":30}");
+        assertThat(text(page.value())).isEqualTo("{\"products\":[],\"total\":0}");
+    }
+
+    @Test
+    @DisplayName("Should reject a file that is not a snapshot")
+    void shouldRejectWrongMagic() throws IOException {
+        Path path = writeSnapshot();
+        byte[] content = Files.readAllBytes(path);
+        content[0] = 'X';
+        Files.write(path, content);
+
+        assertThatThrownBy(() -> CacheSnapshotFile.read(path))
+                .isInstanceOf(CacheSnapshotFile.InvalidSnapshotException.class)
+                .hasMessageContaining("Not a cache snapshot");
+    }
+
+    @Test
+    @DisplayName("Should reject a snapshot of another format version")
+    void shouldRejectOtherVersion() throws IOException {
+        Path path = writeSnapshot();
+        byte[] content = Files.readAllBytes(path);
+        ByteBuffer.wrap(content).putInt(4, CacheSnapshotFile.VERSION + 1);
+        Files.write(path, content);
+
+        assertThatThrownBy(() -> CacheSnapshotFile.read(path))
+                .isInstanceOf(CacheSnapshotFile.InvalidSnapshotException.class)
+                .hasMessageContaining("Unsupported format version");
+    }
+
+    @Test
+    @DisplayName("Should reject a snapshot whose content does not match its checksum")
+    void shouldRejectChecksumMismatch() throws IOException {
+        Path path = writeSnapshot();
+        byte[] content = Files.readAllBytes(path);
+        // A byte of the last value, after the header
+        content[content.length - 10] ^= 0x01;
+        Files.write(path, content);
+
+        assertThatThrownBy(() -> CacheSnapshotFile.read(path))
+                .isInstanceOf(CacheSnapshotFile.InvalidSnapshotException.class)
+                .hasMessageContaining("Checksum mismatch");
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated snapshot")
+    void shouldRejectTruncatedFile() throws IOException {
+        Path path = writeSnapshot();
+        byte[] content = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(content, content.length - 20));
+
+        assertThatThrownBy(() -> CacheSnapshotFile.read(path))
+                .isInstanceOf(CacheSnapshotFile.InvalidSnapshotException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject a file shorter than the header")
+    void shouldRejectFileShorterThanHeader() throws IOException {
+        Path path = directory.resolve("empty.snapshot");
+        Files.write(path, new byte[10]);
+
+        assertThatThrownBy(() -> CacheSnapshotFile.read(path))
+                .isInstanceOf(CacheSnapshotFile.InvalidSnapshotException.class)
+                .hasMessageContaining("Unexpected size");
+    }
+}
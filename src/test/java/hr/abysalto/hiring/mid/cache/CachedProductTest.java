@@ -0,0 +1,126 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedProductTest {
+
+    // Configured like the application's mapper
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .setFilterProvider(new SimpleFilterProvider()
+                    .addFilter(ProductDto.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+
+    private final CachedProducts cachedProducts = new CachedProducts();
+
+    private static ProductDto product() {
+        return ProductDto.builder()
+                .id(1L)
+                .title("iPhone 15")
+                .description("Latest iPhone")
+                .category("smartphones")
+                .price(999.99)
+                .discountPercentage(5.5)
+                .rating(4.7)
+                .stock(25)
+                .tags(List.of("smartphones", "apple"))
+                .brand("Apple")
+                .sku("APL-IP15")
+                .weight(0.2)
+                .dimensions(new ProductDto.DimensionsDto(7.1, 14.7, 0.8))
+                .warrantyInformation("1 year warranty")
+                .shippingInformation("Ships in 1-2 business days")
+                .availabilityStatus("In Stock")
+                .reviews(List.of(new ProductDto.ReviewDto(5, "Great product!", "2025-04-30T09:41:02.053Z",
+                        "Lucas Gordon", "lucas.gordon@x.dummyjson.com")))
+                .returnPolicy("30 days return policy")
+                .minimumOrderQuantity(1)
+                .meta(new ProductDto.MetaDto("2025-04-30T09:41:02.053Z", "2025-04-30T09:41:02.053Z",
+                        "9164035109868", "https://cdn.dummyjson.com/qr.png"))
+                .images(List.of("https://cdn.dummyjson.com/1.png"))
+                .thumbnail("https://cdn.dummyjson.com/thumbnail.png")
+                .build();
+    }
+
+    private String json(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    @Test
+    @DisplayName("Should write the same JSON as the product DTO")
+    void shouldWriteSameJsonAsDto() throws JsonProcessingException {
+        ProductDto product = product();
+        String expected = json(product);
+
+        CachedProduct cached = cachedProducts.compact(product);
+
+        assertThat(json(cached.toDto())).isEqualTo(expected);
+        assertThat(cached.toDto()).isEqualTo(product);
+    }
+
+    @Test
+    @DisplayName("Should keep missing numbers missing and zero numbers zero")
+    void shouldRoundTripMissingNumbers() throws JsonProcessingException {
+        ProductDto product = product();
+        product.setPrice(null);
+        product.setRating(null);
+        product.setWeight(null);
+        product.setStock(0);
+        product.setDiscountPercentage(0.0);
+        product.setMinimumOrderQuantity(null);
+        product.setDimensions(new ProductDto.DimensionsDto(null, 14.7, 0.0));
+        product.setReviews(List.of(new ProductDto.ReviewDto(null, "Great product!", null, "Lucas Gordon", null)));
+        String expected = json(product);
+
+        CachedProduct cached = cachedProducts.compact(product);
+
+        assertThat(json(cached.toDto())).isEqualTo(expected);
+        ProductDto dto = cached.toDto();
+        assertThat(dto).isEqualTo(product);
+        assertThat(dto.getPrice()).isNull();
+        assertThat(dto.getStock()).isZero();
+        assertThat(dto.getDiscountPercentage()).isZero();
+        assertThat(dto.getMinimumOrderQuantity()).isNull();
+        assertThat(dto.getDimensions().getWidth()).isNull();
+        assertThat(dto.getReviews().get(0).getRating()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should leave out dimensions and meta when the product has none")
+    void shouldRoundTripNullDimensionsAndMeta() throws JsonProcessingException {
+        ProductDto product = product();
+        product.setDimensions(null);
+        product.setMeta(null);
+        product.setReviews(null);
+        product.setTags(null);
+        String expected = json(product);
+
+        CachedProduct cached = cachedProducts.compact(product);
+
+        assertThat(json(cached.toDto())).isEqualTo(expected).doesNotContain("dimensions", "meta", "reviews", "tags");
+        assertThat(cached.toDto()).isEqualTo(product);
+    }
+
+    @Test
+    @DisplayName("Should write only the requested fields of a projection")
+    void shouldApplyFieldsFilter() throws JsonProcessingException {
+        CachedProduct cached = cachedProducts.compact(product());
+
+        String json = objectMapper.writer(new SimpleFilterProvider()
+                        .addFilter(ProductDto.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "title"))))
+                .writeValueAsString(cached.toDto());
+
+        assertThat(json).isEqualTo("{\"id\":1,\"title\":\"iPhone 15\"}");
+    }
+}
@@ -0,0 +1,83 @@
+package hr.abysalto.hiring.mid.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledRefreshCacheLoaderTest {
+
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(1);
+
+    private long nanos;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private boolean rejecting;
+
+    private final Executor refreshExecutor = task -> {
+        if (rejecting) {
+            throw new RejectedExecutionException("Refresh queue is full");
+        }
+        refreshes.add(task);
+    };
+
+    private final List<Runnable> maintenance = new ArrayList<>();
+
+    private LoadingCache<Object, Object> cache() {
+        return Caffeine.newBuilder()
+                .ticker(() -> nanos)
+                .refreshAfterWrite(REFRESH_AFTER)
+                .executor(maintenance::add)
+                .build(new PooledRefreshCacheLoader(key -> key + "-" + loads.incrementAndGet(), refreshExecutor));
+    }
+
+    private void runRefreshes() {
+        List<Runnable> tasks = List.copyOf(refreshes);
+        refreshes.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Should reload on the refresh pool and leave maintenance to the cache's executor")
+    void shouldReloadOnRefreshPool() {
+        LoadingCache<Object, Object> cache = cache();
+        assertThat(cache.get(1L)).isEqualTo("1-1");
+
+        nanos += REFRESH_AFTER.toNanos() + 1;
+        assertThat(cache.get(1L)).isEqualTo("1-1");
+        assertThat(refreshes).hasSize(1);
+        runRefreshes();
+
+        assertThat(cache.get(1L)).isEqualTo("1-2");
+        assertThat(maintenance).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the current value and refresh on a later read when the refresh pool rejects")
+    void shouldKeepValueWhenRefreshIsRejected() {
+        LoadingCache<Object, Object> cache = cache();
+        cache.get(1L);
+
+        nanos += REFRESH_AFTER.toNanos() + 1;
+        rejecting = true;
+        assertThat(cache.get(1L)).isEqualTo("1-1");
+        assertThat(refreshes).isEmpty();
+
+        rejecting = false;
+        assertThat(cache.get(1L)).isEqualTo("1-1");
+        runRefreshes();
+        assertThat(cache.get(1L)).isEqualTo("1-2");
+    }
+}
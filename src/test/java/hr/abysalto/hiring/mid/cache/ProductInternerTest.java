@@ -0,0 +1,79 @@
+package hr.abysalto.hiring.mid.cache;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductInternerTest {
+
+    // new String(..) so that equal values are distinct instances, as they are when parsed from JSON
+    private static ProductDto product(long id) {
+        return ProductDto.builder()
+                .id(id)
+                .title(new String("iPhone " + id))
+                .category(new String("smartphones"))
+                .brand(new String("Apple"))
+                .tags(List.of(new String("smartphones"), new String("apple")))
+                .returnPolicy(new String("30 days return policy"))
+                .reviews(List.of(new ProductDto.ReviewDto(5, new String("Great product!"), "2025-04-30T09:41:02.053Z",
+                        new String("Lucas Gordon"), "lucas.gordon@x.dummyjson.com")))
+                .meta(new ProductDto.MetaDto(new String("2025-04-30T09:41:02.053Z"),
+                        new String("2025-04-30T09:41:02.053Z"), "9164035109868", "https://cdn.dummyjson.com/qr.png"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should share repeating values between products")
+    void shouldShareRepeatingValues() {
+        ProductInterner interner = new ProductInterner(100);
+        ProductDto first = product(1L);
+        ProductDto second = product(2L);
+
+        interner.intern(ProductsResponse.builder().products(List.of(first, second)).build());
+
+        assertThat(second.getCategory()).isSameAs(first.getCategory());
+        assertThat(second.getBrand()).isSameAs(first.getBrand());
+        assertThat(second.getTags()).isSameAs(first.getTags());
+        assertThat(second.getReturnPolicy()).isSameAs(first.getReturnPolicy());
+        assertThat(second.getReviews().get(0).getComment()).isSameAs(first.getReviews().get(0).getComment());
+        assertThat(second.getReviews().get(0).getReviewerName()).isSameAs(first.getReviews().get(0).getReviewerName());
+        assertThat(second.getTitle()).isEqualTo("iPhone 2");
+    }
+
+    @Test
+    @DisplayName("Should not pool values that are nearly unique per product")
+    void shouldNotPoolUniqueValues() {
+        ProductInterner interner = new ProductInterner(100);
+        ProductDto first = product(1L);
+        ProductDto second = product(2L);
+
+        interner.intern(first);
+        interner.intern(second);
+
+        assertThat(second.getMeta().getCreatedAt()).isNotSameAs(first.getMeta().getCreatedAt());
+        assertThat(second.getMeta().getUpdatedAt()).isNotSameAs(first.getMeta().getUpdatedAt());
+        assertThat(second.getTitle()).isNotSameAs(first.getTitle());
+        // "smartphones" as category and tag, brand, tag list, the other tag, return policy, review comment
+        // and reviewer name
+        assertThat(interner.size()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should leave products unchanged when interning is disabled")
+    void shouldNotShareWhenDisabled() {
+        ProductInterner interner = new ProductInterner(0);
+        ProductDto first = product(1L);
+        ProductDto second = product(2L);
+
+        interner.intern(first);
+        interner.intern(second);
+
+        assertThat(second.getCategory()).isEqualTo(first.getCategory()).isNotSameAs(first.getCategory());
+        assertThat(interner.size()).isZero();
+    }
+}
@@ -0,0 +1,78 @@
+package hr.abysalto.hiring.mid.catalogue;
+
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private static ProductDto product(long id, String description) {
+        return ProductDto.builder()
+                .id(id)
+                .title("iPhone " + id)
+                .brand("Apple")
+                .category("smartphones")
+                .tags(List.of("smartphones"))
+                .description(description)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should analyze a product again when a field changed to a value with the same hash code")
+    void shouldAnalyzeProductWithCollidingChangeAgain() {
+        // "Aa" and "BB" have the same length and hash code
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        ProductSearchIndex previous = ProductSearchIndex.build(new ProductDto[]{product(1L, "Aa")}, null);
+
+        ProductSearchIndex index = ProductSearchIndex.build(new ProductDto[]{product(1L, "BB")}, previous);
+
+        assertThat(index.search("bb", 0, 0).positions()).containsExactly(0);
+        assertThat(index.search("aa", 0, 0).positions()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find unchanged products after the index was built again")
+    void shouldFindUnchangedProductsAfterRebuild() {
+        ProductDto[] products = {product(1L, "Titanium body"), product(2L, "Aluminium body")};
+        ProductSearchIndex previous = ProductSearchIndex.build(products, null);
+
+        ProductSearchIndex index = ProductSearchIndex.build(new ProductDto[]{products[1], products[0]}, previous);
+
+        assertThat(index.search("titanium", 0, 0).positions()).containsExactly(1);
+        assertThat(index.search("body", 0, 0).positions()).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    @DisplayName("Should rank only one page of a short prefix matching most of a large catalogue")
+    void shouldRankOnePageOfShortPrefixOnLargeCatalogue() {
+        // 100k products whose descriptions use 5,000 distinct terms starting with "p"
+        ProductDto[] products = new ProductDto[100_000];
+        for (int id = 0; id < products.length; id++) {
+            products[id] = product(id, "phone p" + (id % 5000) + " plain");
+        }
+        products[42].setTitle("Phone 42");
+        ProductSearchIndex index = ProductSearchIndex.build(products, null);
+
+        ProductSearchIndex.Hits page = index.search("p", 0, 10);
+        assertThat(page.positions()).isEmpty();
+        page = index.search("ph", 0, 10);
+        assertThat(page.total()).isEqualTo(products.length);
+        assertThat(page.positions()).hasSize(10).startsWith(42);
+
+        ProductSearchIndex.Hits next = index.search("ph", 10, 10);
+        assertThat(next.positions()).hasSize(10).doesNotContain(page.positions());
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            index.search("p1", 0, 30);
+        }
+        // A bounded number of expanded terms, each matching 20 products, ranked into one page
+        assertThat(index.search("p1", 0, 30).total()).isLessThanOrEqualTo(32 * 20);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+    }
+}
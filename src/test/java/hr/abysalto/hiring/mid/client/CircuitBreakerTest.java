@@ -0,0 +1,60 @@
+package hr.abysalto.hiring.mid.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, OPEN_DURATION, clock,
+            new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Should let the next call be the trial after the trial call threw an Error")
+    void shouldReleaseTrialAfterError() {
+        assertThatThrownBy(() -> circuitBreaker.call(() -> {
+            throw new ResourceAccessException("Connection refused");
+        })).isInstanceOf(ResourceAccessException.class);
+        assertThat(circuitBreaker.isOpen()).isTrue();
+
+        now = now.plus(OPEN_DURATION);
+        assertThatThrownBy(() -> circuitBreaker.call(() -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        now = now.plus(OPEN_DURATION);
+        assertThat(circuitBreaker.call(() -> "ok")).isEqualTo("ok");
+        assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+}
@@ -1,7 +1,11 @@
 package hr.abysalto.hiring.mid.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.cache.LastKnownValues;
+import hr.abysalto.hiring.mid.client.CircuitBreaker;
 import hr.abysalto.hiring.mid.client.ProductClient;
+import hr.abysalto.hiring.mid.client.ProductStreamClient;
+import hr.abysalto.hiring.mid.dto.ProductDto;
 import hr.abysalto.hiring.mid.repository.CartItemRepository;
 import hr.abysalto.hiring.mid.repository.FavouriteRepository;
 import hr.abysalto.hiring.mid.repository.UserRepository;
@@ -40,12 +44,21 @@ public abstract class AbysaltoTestAbstract {
     @MockitoBean
     protected ProductClient productClient;
 
+    @MockitoBean
+    protected ProductStreamClient productStreamClient;
+
     @MockitoSpyBean
     protected FavouriteRepository favouriteRepository;
 
     @MockitoSpyBean
     protected CartItemRepository cartItemRepository;
 
+    @Autowired
+    protected CircuitBreaker dummyJsonCircuitBreaker;
+
+    @Autowired
+    protected LastKnownValues lastKnownValues;
+
     private static RequestPostProcessor authenticatedUserInstance;
 
     protected static RequestPostProcessor authenticatedUser() {
@@ -59,10 +72,21 @@ public abstract class AbysaltoTestAbstract {
         return user(username).roles("USER");
     }
 
+    protected static ProductDto product(long id, String title) {
+        return ProductDto.builder()
+                .id(id)
+                .title(title)
+                .category("smartphones")
+                .price(999.99)
+                .build();
+    }
+
     @BeforeEach
     protected void setUp() {
         userRepository.deleteAll();
         favouriteRepository.deleteAll();
         cartItemRepository.deleteAll();
+        dummyJsonCircuitBreaker.reset();
+        lastKnownValues.clear();
     }
 }
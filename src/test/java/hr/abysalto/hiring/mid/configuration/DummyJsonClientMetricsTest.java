@@ -0,0 +1,93 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import com.sun.net.httpserver.HttpServer;
+import hr.abysalto.hiring.mid.client.ProductClient;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Calls a local stand-in for DummyJSON through the configured RestClient, as the ProductClient bean
+ * itself is mocked in the tests.
+ */
+class DummyJsonClientMetricsTest extends AbysaltoTestAbstract {
+
+    private static final HttpServer dummyJson = startDummyJson();
+
+    @Autowired
+    private RestClient dummyJsonRestClient;
+
+    @DynamicPropertySource
+    static void dummyJsonBaseUrl(DynamicPropertyRegistry registry) {
+        registry.add("dummyjson.base-url", () -> "http://localhost:" + dummyJson.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopDummyJson() {
+        dummyJson.stop(0);
+    }
+
+    private static HttpServer startDummyJson() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/products", exchange -> {
+                byte[] body = "{\"id\":1,\"title\":\"iPhone 15\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Should observe DummyJSON calls per client method with the upstream and outcome")
+    void shouldObserveCallsPerClientMethod() {
+        ProductClient client = HttpServiceProxyFactory.builderFor(RestClientAdapter.create(dummyJsonRestClient))
+                .build()
+                .createClient(ProductClient.class);
+
+        ProductDto product = client.getProductById(1L);
+
+        assertThat(product.getTitle()).isEqualTo("iPhone 15");
+        mockMvc.perform(get("/actuator/metrics/http.client.requests")
+                        .param("tag", "upstream:dummyjson")
+                        .param("tag", "uri:/products/{productId}")
+                        .with(authenticatedUser()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value", hasItem(1.0)))
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'outcome')].values[*]", hasItem("SUCCESS")));
+        mockMvc.perform(get("/actuator/metrics/http.client.requests.percentile")
+                        .param("tag", "uri:/products/{productId}")
+                        .with(authenticatedUser()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'phi')].values[*]", hasItem("0.95")));
+    }
+}
@@ -0,0 +1,49 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.SneakyThrows;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "dummyjson.client.type=pooled",
+        "dummyjson.client.pool.max-connections=40",
+        "dummyjson.client.pool.max-connections-per-route=10"
+})
+class PooledDummyJsonClientTest extends AbysaltoTestAbstract {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager dummyJsonConnectionManager;
+
+    @Test
+    @DisplayName("Should size the DummyJSON connection pool from the client properties")
+    void shouldSizeConnectionPoolFromProperties() {
+        assertThat(dummyJsonConnectionManager.getMaxTotal()).isEqualTo(40);
+        assertThat(dummyJsonConnectionManager.getDefaultMaxPerRoute()).isEqualTo(10);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Should expose DummyJSON connection pool metrics through Actuator")
+    void shouldExposeConnectionPoolMetrics() {
+        mockMvc.perform(get("/actuator/metrics/httpcomponents.httpclient.pool.total.max")
+                        .param("tag", "httpclient:dummyjson")
+                        .with(authenticatedUser()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(40.0));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Should require authentication for Actuator metrics")
+    void shouldRequireAuthenticationForMetrics() {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -1,18 +1,23 @@
 package hr.abysalto.hiring.mid.configuration;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 
+/**
+ * Disables caching in tests. Tests of the caches themselves set {@code test.caching.enabled=true}
+ * to run on the Caffeine cache manager of {@link CacheConfig}.
+ */
 @TestConfiguration
 public class TestCacheConfig {
 
     @Bean
     @Primary
+    @ConditionalOnProperty(value = "test.caching.enabled", havingValue = "false", matchIfMissing = true)
     public CacheManager noOpCacheManager() {
         return new NoOpCacheManager();
     }
 }
-
@@ -2,7 +2,7 @@ package hr.abysalto.hiring.mid.controller;
 
 import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
 import hr.abysalto.hiring.mid.dto.AddToCartRequest;
-import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
 import hr.abysalto.hiring.mid.dto.RegisterRequest;
 import hr.abysalto.hiring.mid.repository.entity.CartItem;
 import lombok.SneakyThrows;
@@ -23,13 +23,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 class CartControllerDbUnavailableTest extends AbysaltoTestAbstract {
 
-    private static final ProductDto SAMPLE_PRODUCT = ProductDto.builder()
+    private static final ProductSummaryDto SAMPLE_PRODUCT = ProductSummaryDto.builder()
             .id(1L)
             .title("iPhone 15")
-            .description("Latest Apple smartphone")
-            .category("smartphones")
             .price(999.99)
-            .brand("Apple")
             .build();
 
     private static final RegisterRequest REGISTER_REQUEST = RegisterRequest.builder()
@@ -57,7 +54,7 @@ class CartControllerDbUnavailableTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return 500 when database is unavailable during add to cart check")
         void shouldReturn500WhenDbUnavailableDuringAddToCartCheck() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             doThrow(new DataAccessResourceFailureException("Database connection failed"))
                     .when(cartItemRepository).existsByUserIdAndProductId(anyLong(), anyLong());
@@ -81,7 +78,7 @@ class CartControllerDbUnavailableTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return 500 when database fails during cart item save")
         void shouldReturn500WhenDbFailsDuringCartItemSave() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             doThrow(new DataAccessResourceFailureException("Database write failed"))
                     .when(cartItemRepository).save(any(CartItem.class));
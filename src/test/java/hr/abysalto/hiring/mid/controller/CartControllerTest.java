@@ -1,8 +1,9 @@
 package hr.abysalto.hiring.mid.controller;
 
 import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.controller.advice.StaleResponseBodyAdvice;
 import hr.abysalto.hiring.mid.dto.AddToCartRequest;
-import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
 import hr.abysalto.hiring.mid.dto.RegisterRequest;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,19 +18,17 @@ import org.springframework.web.client.ResourceAccessException;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 class CartControllerTest extends AbysaltoTestAbstract {
 
-    private static final ProductDto SAMPLE_PRODUCT = ProductDto.builder()
+    private static final ProductSummaryDto SAMPLE_PRODUCT = ProductSummaryDto.builder()
             .id(1L)
             .title("iPhone 15")
-            .description("Latest Apple smartphone")
-            .category("smartphones")
             .price(999.99)
-            .brand("Apple")
             .build();
 
     private static final RegisterRequest REGISTER_REQUEST = RegisterRequest.builder()
@@ -78,7 +77,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should add product to cart successfully")
         void shouldAddProductToCartSuccessfully() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             AddToCartRequest request = AddToCartRequest.builder()
                     .productId(1L)
@@ -96,14 +95,14 @@ class CartControllerTest extends AbysaltoTestAbstract {
                     .andExpect(jsonPath("$.quantity").value(2))
                     .andExpect(jsonPath("$.message").value("Product added to cart successfully"));
 
-            verify(productClient, times(1)).getProductById(1L);
+            verify(productClient, times(1)).getProductSummaryById(1L, ProductSummaryDto.SELECT);
         }
 
         @Test
         @SneakyThrows
         @DisplayName("Should add product with default quantity of 1")
         void shouldAddProductWithDefaultQuantity() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             AddToCartRequest request = AddToCartRequest.builder()
                     .productId(1L)
@@ -121,7 +120,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return 409 when product already in cart")
         void shouldReturn409WhenProductAlreadyInCart() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             AddToCartRequest request = AddToCartRequest.builder()
                     .productId(1L)
@@ -148,7 +147,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return 404 when product does not exist")
         void shouldReturn404WhenProductNotFound() {
-            when(productClient.getProductById(999L))
+            when(productClient.getProductSummaryById(999L, ProductSummaryDto.SELECT))
                     .thenThrow(HttpClientErrorException.create(
                             HttpStatus.NOT_FOUND,
                             "Not Found",
@@ -240,7 +239,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
                             .content(objectMapper.writeValueAsString(registerRequest)))
                     .andExpect(status().isCreated());
 
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             AddToCartRequest request = AddToCartRequest.builder()
                     .productId(1L)
@@ -264,7 +263,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return 500 when external service is unavailable")
         void shouldReturn500WhenExternalServiceUnavailable() {
-            when(productClient.getProductById(anyLong()))
+            when(productClient.getProductSummaryById(anyLong(), anyString()))
                     .thenThrow(new ResourceAccessException("Connection refused"));
 
             AddToCartRequest request = AddToCartRequest.builder()
@@ -346,7 +345,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return user cart successfully")
         void shouldReturnUserCartSuccessfully() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             AddToCartRequest request = AddToCartRequest.builder()
                     .productId(1L)
@@ -372,18 +371,53 @@ class CartControllerTest extends AbysaltoTestAbstract {
                     .andExpect(jsonPath("$.totalPrice").value(1999.98));
         }
 
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return only requested product fields")
+        void shouldReturnOnlyRequestedProductFields() {
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
+
+            mockMvc.perform(post("/api/cart")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(AddToCartRequest.builder().productId(1L).quantity(2).build()))
+                            .with(authenticatedUser()))
+                    .andExpect(status().isCreated());
+
+            mockMvc.perform(get("/api/cart")
+                            .param("fields", "id,price")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].product.id").value(1))
+                    .andExpect(jsonPath("$.items[0].product.price").value(999.99))
+                    .andExpect(jsonPath("$.items[0].product.title").doesNotExist())
+                    .andExpect(jsonPath("$.items[0].quantity").value(2))
+                    .andExpect(jsonPath("$.totalPrice").value(1999.98));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 400 when fields a cart product summary does not have are requested")
+        void shouldReturn400WhenFieldsMissingFromSummaryRequested() {
+            mockMvc.perform(get("/api/cart")
+                            .param("fields", "id,rating")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.violations[0].propertyPath").value("fields"))
+                    .andExpect(jsonPath("$.violations[0].message", containsString("rating")));
+        }
+
         @Test
         @SneakyThrows
         @DisplayName("Should return multiple cart items with correct totals")
         void shouldReturnMultipleCartItemsWithCorrectTotals() {
-            ProductDto secondProduct = ProductDto.builder()
+            ProductSummaryDto secondProduct = ProductSummaryDto.builder()
                     .id(2L)
                     .title("Samsung Galaxy S24")
                     .price(899.99)
                     .build();
 
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
-            when(productClient.getProductById(2L)).thenReturn(secondProduct);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(2L, ProductSummaryDto.SELECT)).thenReturn(secondProduct);
 
             mockMvc.perform(post("/api/cart")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -409,7 +443,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return same cart for repeated calls (idempotency)")
         void shouldReturnSameCartForRepeatedCalls() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             mockMvc.perform(post("/api/cart")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -441,14 +475,14 @@ class CartControllerTest extends AbysaltoTestAbstract {
                             .content(objectMapper.writeValueAsString(registerRequest)))
                     .andExpect(status().isCreated());
 
-            ProductDto secondProduct = ProductDto.builder()
+            ProductSummaryDto secondProduct = ProductSummaryDto.builder()
                     .id(2L)
                     .title("Samsung Galaxy S24")
                     .price(899.99)
                     .build();
 
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
-            when(productClient.getProductById(2L)).thenReturn(secondProduct);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(2L, ProductSummaryDto.SELECT)).thenReturn(secondProduct);
 
             mockMvc.perform(post("/api/cart")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -479,7 +513,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should handle deleted products gracefully")
         void shouldHandleDeletedProductsGracefully() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             mockMvc.perform(post("/api/cart")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -488,7 +522,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
                     .andExpect(status().isCreated());
 
             reset(productClient);
-            when(productClient.getProductById(1L))
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT))
                     .thenThrow(HttpClientErrorException.create(
                             HttpStatus.NOT_FOUND,
                             "Not Found",
@@ -504,6 +538,78 @@ class CartControllerTest extends AbysaltoTestAbstract {
                     .andExpect(jsonPath("$.totalItems").value(0))
                     .andExpect(jsonPath("$.totalPrice").value(0.0));
         }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return last known products marked stale when external service is unavailable")
+        void shouldReturnStaleProductsWhenExternalServiceUnavailable() {
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
+
+            mockMvc.perform(post("/api/cart")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(AddToCartRequest.builder().productId(1L).quantity(2).build()))
+                            .with(authenticatedUser()))
+                    .andExpect(status().isCreated());
+
+            reset(productClient);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT))
+                    .thenThrow(new ResourceAccessException("Connection refused"));
+
+            mockMvc.perform(get("/api/cart")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(StaleResponseBodyAdvice.WARNING_HEADER, StaleResponseBodyAdvice.STALE_WARNING))
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].product.title").value("iPhone 15"))
+                    .andExpect(jsonPath("$.totalPrice").value(1999.98));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return remaining products when some cart products were deleted")
+        void shouldReturnRemainingProductsWhenSomeWereDeleted() {
+            ProductSummaryDto secondProduct = ProductSummaryDto.builder()
+                    .id(2L)
+                    .title("Samsung Galaxy S24")
+                    .price(899.99)
+                    .build();
+
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(2L, ProductSummaryDto.SELECT)).thenReturn(secondProduct);
+
+            mockMvc.perform(post("/api/cart")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(AddToCartRequest.builder().productId(1L).quantity(1).build()))
+                            .with(authenticatedUser()))
+                    .andExpect(status().isCreated());
+
+            mockMvc.perform(post("/api/cart")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(AddToCartRequest.builder().productId(2L).quantity(2).build()))
+                            .with(authenticatedUser()))
+                    .andExpect(status().isCreated());
+
+            reset(productClient);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT))
+                    .thenThrow(HttpClientErrorException.create(
+                            HttpStatus.NOT_FOUND,
+                            "Not Found",
+                            HttpHeaders.EMPTY,
+                            null,
+                            null));
+            when(productClient.getProductSummaryById(2L, ProductSummaryDto.SELECT)).thenReturn(secondProduct);
+
+            mockMvc.perform(get("/api/cart")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].product.id").value(2))
+                    .andExpect(jsonPath("$.totalItems").value(2))
+                    .andExpect(jsonPath("$.totalPrice").value(closeTo(1799.98, 0.01)));
+
+            verify(productClient, times(1)).getProductSummaryById(1L, ProductSummaryDto.SELECT);
+            verify(productClient, times(1)).getProductSummaryById(2L, ProductSummaryDto.SELECT);
+        }
     }
 
     @Nested
@@ -522,7 +628,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should remove item from cart successfully")
         void shouldRemoveItemFromCartSuccessfully() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             mockMvc.perform(post("/api/cart")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -573,7 +679,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
                             .content(objectMapper.writeValueAsString(registerRequest)))
                     .andExpect(status().isCreated());
 
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             mockMvc.perform(post("/api/cart")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -607,7 +713,7 @@ class CartControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should allow re-adding after removal")
         void shouldAllowReAddingAfterRemoval() {
-            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(SAMPLE_PRODUCT);
 
             mockMvc.perform(post("/api/cart")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -3,7 +3,9 @@ package hr.abysalto.hiring.mid.controller;
 import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
 import hr.abysalto.hiring.mid.dto.AddFavouriteRequest;
 import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductSummaryDto;
 import hr.abysalto.hiring.mid.dto.RegisterRequest;
+import hr.abysalto.hiring.mid.util.ProductMapper;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +19,7 @@ import org.springframework.web.client.ResourceAccessException;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -78,6 +81,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @DisplayName("Should add product to favourites successfully")
         void shouldAddProductToFavouritesSuccessfully() {
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             AddFavouriteRequest request = AddFavouriteRequest.builder()
                     .productId(1L)
@@ -93,7 +97,8 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
                     .andExpect(jsonPath("$.productId").value(1))
                     .andExpect(jsonPath("$.message").value("Product added to favourites successfully"));
 
-            verify(productClient, times(1)).getProductById(1L);
+            verify(productClient, times(1)).getProductSummaryById(1L, ProductSummaryDto.SELECT);
+            verify(productClient, never()).getProductById(1L);
         }
 
         @Test
@@ -101,6 +106,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @DisplayName("Should return 409 when product already in favourites (idempotency)")
         void shouldReturn409WhenProductAlreadyInFavourites() {
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             AddFavouriteRequest request = AddFavouriteRequest.builder()
                     .productId(1L)
@@ -126,7 +132,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return 404 when product does not exist")
         void shouldReturn404WhenProductNotFound() {
-            when(productClient.getProductById(999L))
+            when(productClient.getProductSummaryById(999L, ProductSummaryDto.SELECT))
                     .thenThrow(HttpClientErrorException.create(
                             HttpStatus.NOT_FOUND,
                             "Not Found",
@@ -190,6 +196,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
                     .andExpect(status().isCreated());
 
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             AddFavouriteRequest request = AddFavouriteRequest.builder()
                     .productId(1L)
@@ -212,7 +219,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @SneakyThrows
         @DisplayName("Should return 500 when external service is unavailable")
         void shouldReturn500WhenExternalServiceUnavailable() {
-            when(productClient.getProductById(anyLong()))
+            when(productClient.getProductSummaryById(anyLong(), anyString()))
                     .thenThrow(new ResourceAccessException("Connection refused"));
 
             AddFavouriteRequest request = AddFavouriteRequest.builder()
@@ -255,6 +262,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @DisplayName("Should return user favourites successfully")
         void shouldReturnUserFavouritesSuccessfully() {
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             AddFavouriteRequest request = AddFavouriteRequest.builder()
                     .productId(1L)
@@ -287,7 +295,9 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
                     .build();
 
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
             when(productClient.getProductById(2L)).thenReturn(secondProduct);
+            when(productClient.getProductSummaryById(2L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(secondProduct));
 
             mockMvc.perform(post("/api/favourites")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -313,6 +323,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @DisplayName("Should return same favourites for repeated calls (idempotency)")
         void shouldReturnSameFavouritesForRepeatedCalls() {
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             mockMvc.perform(post("/api/favourites")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -351,7 +362,9 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
                     .build();
 
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
             when(productClient.getProductById(2L)).thenReturn(secondProduct);
+            when(productClient.getProductSummaryById(2L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(secondProduct));
 
             mockMvc.perform(post("/api/favourites")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -383,6 +396,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @DisplayName("Should handle deleted products gracefully")
         void shouldHandleDeletedProductsGracefully() {
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             mockMvc.perform(post("/api/favourites")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -424,6 +438,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @DisplayName("Should remove favourite successfully")
         void shouldRemoveFavouriteSuccessfully() {
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             mockMvc.perform(post("/api/favourites")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -475,6 +490,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
                     .andExpect(status().isCreated());
 
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             mockMvc.perform(post("/api/favourites")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -509,6 +525,7 @@ class FavouriteControllerTest extends AbysaltoTestAbstract {
         @DisplayName("Should allow re-adding after removal")
         void shouldAllowReAddingAfterRemoval() {
             when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductSummaryById(1L, ProductSummaryDto.SELECT)).thenReturn(ProductMapper.mapToSummary(SAMPLE_PRODUCT));
 
             mockMvc.perform(post("/api/favourites")
                             .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,202 @@
+package hr.abysalto.hiring.mid.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import hr.abysalto.hiring.mid.cache.ProductPageKey;
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.service.CatalogueSnapshotService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "test.caching.enabled=true",
+        "product.cache.product-by-id.refresh-after-write=500ms",
+        "product.cache.product-by-id.expire-after-write=1h",
+        "product.cache.product-by-id.maximum-weight=64KB"
+})
+class ProductControllerCachingTest extends AbysaltoTestAbstract {
+
+    private static final long REFRESH_MILLIS = 500;
+    private static final long MAXIMUM_WEIGHT = 64 * 1024;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogueSnapshotService catalogueSnapshotService;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @SneakyThrows
+    private ResultActions getProduct(long id) {
+        return mockMvc.perform(get("/api/products/" + id)
+                .with(authenticatedUser()));
+    }
+
+    @SneakyThrows
+    private void awaitTitle(long id, String title) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String body = getProduct(id).andReturn().getResponse().getContentAsString();
+            if (body.contains("\"title\":\"" + title + "\"")) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Product " + id + " was not reloaded as " + title);
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/{productId} with the product caches enabled")
+    class CachedProductTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should serve a cached product without calling DummyJSON again")
+        void shouldServeCachedProduct() {
+            when(productClient.getProductById(1L)).thenReturn(product(1L, "iPhone 15"));
+
+            getProduct(1L).andExpect(status().isOk());
+            getProduct(1L)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value("iPhone 15"));
+
+            verify(productClient, times(1)).getProductById(1L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should reload a product in the background once it is due for a refresh")
+        void shouldReloadProductInBackgroundWhenDue() {
+            CountDownLatch reloadReleased = new CountDownLatch(1);
+            when(productClient.getProductById(2L))
+                    .thenReturn(product(2L, "iPhone 15"))
+                    .thenAnswer(invocation -> {
+                        reloadReleased.await(5, TimeUnit.SECONDS);
+                        return product(2L, "iPhone 15 Pro");
+                    });
+
+            getProduct(2L).andExpect(jsonPath("$.title").value("iPhone 15"));
+            Thread.sleep(REFRESH_MILLIS + 100);
+
+            // The cached value is still served while it is reloaded
+            getProduct(2L)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value("iPhone 15"));
+            verify(productClient, timeout(2000).times(2)).getProductById(2L);
+            reloadReleased.countDown();
+            awaitTitle(2L, "iPhone 15 Pro");
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should serve a product listed on a fetched page without calling DummyJSON for it")
+        void shouldServeListedProductFromCache() {
+            when(productClient.getAllProducts(30, 0, null, null)).thenReturn(ProductsResponse.builder()
+                    .products(List.of(product(5L, "iPhone 15"), product(6L, "Galaxy S24")))
+                    .total(2)
+                    .skip(0)
+                    .limit(30)
+                    .build());
+
+            mockMvc.perform(get("/api/products")
+                            .param("limit", "30")
+                            .param("skip", "0")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk());
+            getProduct(6L)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value("Galaxy S24"));
+
+            verify(productClient, never()).getProductById(anyLong());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should not fill the product cache or last known values from the catalogue snapshot")
+        void shouldNotCacheCatalogueSnapshotProducts() {
+            when(productClient.getAllProducts(0, 0, null, null)).thenReturn(ProductsResponse.builder()
+                    .products(List.of(product(7L, "iPhone 15"), product(8L, "Galaxy S24")))
+                    .total(2)
+                    .skip(0)
+                    .limit(2)
+                    .build());
+            when(productClient.getProductById(7L)).thenReturn(product(7L, "iPhone 15"));
+
+            catalogueSnapshotService.refresh();
+
+            assertThat(lastKnownValues.<Object>get(CacheConfig.PRODUCTS_CACHE, ProductPageKey.of(0, 0, null, null)))
+                    .isNull();
+            assertThat(cacheManager.getCache(CacheConfig.PRODUCT_BY_ID_CACHE).get(8L)).isNull();
+            getProduct(7L).andExpect(status().isOk());
+            verify(productClient, times(1)).getProductById(7L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should not request a product again after DummyJSON answered 404")
+        void shouldNotRequestMissingProductAgain() {
+            when(productClient.getProductById(999L))
+                    .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY,
+                            null, null));
+
+            getProduct(999L).andExpect(status().isNotFound());
+            getProduct(999L).andExpect(status().isNotFound());
+            mockMvc.perform(get("/api/products/batch")
+                            .param("ids", "999")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.notFound[0]").value(999));
+
+            verify(productClient, times(1)).getProductById(999L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should evict products once their estimated size exceeds the cache budget")
+        void shouldEvictProductsOverMemoryBudget() {
+            // About 4KB each, so 30 of them do not fit in 64KB
+            when(productClient.getProductById(anyLong())).thenAnswer(invocation -> {
+                ProductDto product = product(invocation.getArgument(0), "Large product");
+                product.setDescription("x".repeat(4000));
+                return product;
+            });
+
+            for (long id = 100; id < 130; id++) {
+                getProduct(id).andExpect(status().isOk());
+            }
+
+            Cache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(CacheConfig.PRODUCT_BY_ID_CACHE))
+                    .getNativeCache();
+            cache.cleanUp();
+            assertThat(cache.estimatedSize()).isLessThan(30);
+            assertThat(cache.policy().eviction().orElseThrow().weightedSize().orElseThrow())
+                    .isLessThanOrEqualTo(MAXIMUM_WEIGHT);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package hr.abysalto.hiring.mid.controller;
+
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.service.CatalogueSnapshotService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs in its own context, so no other test has built the catalogue snapshot yet.
+ */
+@TestPropertySource(properties = {
+        "product.catalogue.snapshot.enabled=false",
+        "product.catalogue.snapshot.initial-delay=PT1H"
+})
+class ProductControllerCatalogueLoadingTest extends AbysaltoTestAbstract {
+
+    @Autowired
+    private CatalogueSnapshotService catalogueSnapshotService;
+
+    @Nested
+    @DisplayName("GET /api/products with filters before the catalogue snapshot was built")
+    class FilterBeforeSnapshotTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should answer 503 while the snapshot is built in the background, then filter from it")
+        void shouldBuildSnapshotInBackground() {
+            List<ProductDto> products = List.of(
+                    product(1L, "iPhone 15"),
+                    ProductDto.builder().id(2L).title("MacBook Air").category("laptops").price(1299.99).build());
+            when(productClient.getAllProducts(0, 0, null, null)).thenReturn(ProductsResponse.builder()
+                    .products(products)
+                    .total(products.size())
+                    .skip(0)
+                    .limit(products.size())
+                    .build());
+
+            mockMvc.perform(get("/api/products")
+                            .param("category", "laptops")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+            await().atMost(Duration.ofSeconds(5))
+                    .until(() -> catalogueSnapshotService.current().isPresent());
+
+            mockMvc.perform(get("/api/products")
+                            .param("category", "laptops")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(1)))
+                    .andExpect(jsonPath("$.products[0].id").value(2));
+
+            verify(productClient, times(1)).getAllProducts(0, 0, null, null);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package hr.abysalto.hiring.mid.controller;
+
+import hr.abysalto.hiring.mid.cache.CachedProduct;
+import hr.abysalto.hiring.mid.client.OutboundPriority;
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.service.ProductLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "dummyjson.client.governor.max-concurrent=1",
+        "dummyjson.client.governor.rate-per-second=0",
+        "dummyjson.client.governor.queue-capacity=2",
+        "dummyjson.client.governor.interactive-max-wait=5s",
+        "dummyjson.client.governor.background-max-wait=5s"
+})
+class ProductControllerGovernorTest extends AbysaltoTestAbstract {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductLoader productLoader;
+
+    private final CountDownLatch releaseUpstream = new CountDownLatch(1);
+    private final List<Long> upstreamCalls = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUpUpstream() {
+        executor = Executors.newFixedThreadPool(3);
+        // Product 1 holds the only permit until released, the others return at once
+        when(productClient.getProductById(anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            upstreamCalls.add(id);
+            if (id == 1L) {
+                releaseUpstream.await(5, TimeUnit.SECONDS);
+            }
+            return product(id, "Product " + id);
+        });
+    }
+
+    @AfterEach
+    void tearDownUpstream() {
+        releaseUpstream.countDown();
+        executor.shutdownNow();
+    }
+
+    private Callable<Integer> request(long id) {
+        return () -> mockMvc.perform(get("/api/products/" + id)
+                        .with(authenticatedUser()))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @SneakyThrows
+    private void awaitGauge(String name, String priority, double expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Gauge gauge = priority == null
+                    ? meterRegistry.get(name).gauge()
+                    : meterRegistry.get(name).tag("priority", priority).gauge();
+            if (gauge.value() == expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(name + " did not reach " + expected);
+    }
+
+    @Nested
+    @DisplayName("Outbound governor for DummyJSON calls")
+    class GovernorTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 503 with Retry-After when the governor queue is full")
+        void shouldReturnServiceUnavailableWhenQueueIsFull() {
+            Counter rejected = meterRegistry.counter("product.upstream.governor.rejected",
+                    "upstream", "dummyjson", "priority", "interactive", "reason", "queue-full");
+            double rejectedBefore = rejected.count();
+
+            Future<Integer> running = executor.submit(request(1L));
+            awaitGauge("product.upstream.governor.in-flight", null, 1);
+            Future<Integer> firstQueued = executor.submit(request(2L));
+            Future<Integer> secondQueued = executor.submit(request(3L));
+            awaitGauge("product.upstream.governor.queued", "interactive", 2);
+
+            mockMvc.perform(get("/api/products/4")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+            releaseUpstream.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+            assertThat(firstQueued.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+            assertThat(secondQueued.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+
+            assertThat(rejected.count()).isEqualTo(rejectedBefore + 1);
+            assertThat(upstreamCalls).doesNotContain(4L);
+            // A rejection by the governor is not an upstream failure
+            assertThat(dummyJsonCircuitBreaker.isOpen()).isFalse();
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should let a queued interactive call run before a queued background call")
+        void shouldServeInteractiveBeforeBackground() {
+            Future<Integer> running = executor.submit(request(1L));
+            awaitGauge("product.upstream.governor.in-flight", null, 1);
+            Future<CachedProduct> background = executor.submit(() ->
+                    OutboundPriority.callAs(OutboundPriority.BACKGROUND, () -> productLoader.loadProduct(2L)));
+            awaitGauge("product.upstream.governor.queued", "background", 1);
+            Future<Integer> interactive = executor.submit(request(3L));
+            awaitGauge("product.upstream.governor.queued", "interactive", 1);
+
+            releaseUpstream.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+            assertThat(interactive.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+            assertThat(background.get(5, TimeUnit.SECONDS).id()).isEqualTo(2L);
+
+            assertThat(upstreamCalls).containsExactly(1L, 3L, 2L);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package hr.abysalto.hiring.mid.controller;
+
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProductControllerMetricsTest extends AbysaltoTestAbstract {
+
+    // The caching cache manager; tests otherwise go through the no-op one
+    @Autowired
+    @Qualifier("cacheManager")
+    private CacheManager cacheManager;
+
+    @Nested
+    @DisplayName("GET /actuator/metrics for the product caches")
+    class CacheMetricsTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should publish cache hits and the hit ratio of every product cache")
+        void shouldPublishCacheHitsAndHitRatio() {
+            Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_NOT_FOUND_CACHE);
+            cache.put(1L, Boolean.TRUE);
+            cache.get(1L);
+
+            mockMvc.perform(get("/actuator/metrics/cache.gets")
+                            .param("tag", "cache:" + CacheConfig.PRODUCT_NOT_FOUND_CACHE)
+                            .param("tag", "result:hit")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.measurements[0].value").value(greaterThanOrEqualTo(1.0)));
+
+            mockMvc.perform(get("/actuator/metrics/product.cache.hit-ratio")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.availableTags[?(@.tag == 'cache')].values[*]",
+                            hasItem(CacheConfig.PRODUCT_BY_ID_CACHE)));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should publish the load statistics of the product caches")
+        void shouldPublishCacheLoadStatistics() {
+            mockMvc.perform(get("/actuator/metrics/cache.load.duration")
+                            .param("tag", "cache:" + CacheConfig.PRODUCT_BY_ID_CACHE)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk());
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package hr.abysalto.hiring.mid.controller;
+
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.repository.ProductRepository;
+import hr.abysalto.hiring.mid.service.ProductMirrorService;
+import hr.abysalto.hiring.mid.service.ProductMirrorSynchronizer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "product.mirror.enabled=true",
+        "product.mirror.page-size=2",
+        "product.mirror.sync-initial-delay=PT1H"
+})
+class ProductControllerMirrorTest extends AbysaltoTestAbstract {
+
+    @Autowired
+    private ProductMirrorSynchronizer productMirrorSynchronizer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    protected void setUp() {
+        super.setUp();
+        productRepository.deleteAll();
+    }
+
+    private static ProductDto product(long id, String title, double price, String updatedAt) {
+        return ProductDto.builder()
+                .id(id)
+                .title(title)
+                .category("smartphones")
+                .price(price)
+                .tags(List.of("phone", "mobile"))
+                .dimensions(ProductDto.DimensionsDto.builder().width(7.1).height(14.7).depth(0.8).build())
+                .reviews(List.of(ProductDto.ReviewDto.builder().rating(5).comment("Great").reviewerName("Ana").build()))
+                .meta(ProductDto.MetaDto.builder().createdAt("2024-05-23T08:56:21.618Z").updatedAt(updatedAt).build())
+                .build();
+    }
+
+    private static ProductsResponse page(int total, int skip, ProductDto... products) {
+        return ProductsResponse.builder()
+                .products(List.of(products))
+                .total(total)
+                .skip(skip)
+                .limit(2)
+                .build();
+    }
+
+    private void stubCatalogue() {
+        when(productClient.getAllProducts(2, 0)).thenReturn(page(3, 0,
+                product(1L, "iPhone 15", 999.99, "2024-05-23T08:56:21.618Z"),
+                product(2L, "Samsung Galaxy S24", 899.99, "2024-05-23T08:56:21.618Z")));
+        when(productClient.getAllProducts(2, 2)).thenReturn(page(3, 2,
+                product(3L, "Google Pixel 8", 699.99, "2024-05-23T08:56:21.618Z")));
+    }
+
+    @Nested
+    @DisplayName("Catalogue synchronization")
+    class SynchronizationTests {
+
+        @Test
+        @DisplayName("Should insert the whole catalogue on first synchronization")
+        void shouldInsertWholeCatalogueOnFirstSynchronization() {
+            stubCatalogue();
+
+            ProductMirrorService.SyncResult result = productMirrorSynchronizer.synchronize().orElseThrow();
+
+            assertThat(result).isEqualTo(new ProductMirrorService.SyncResult(3, 0, 0, 0));
+            assertThat(productRepository.count()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should only write changed and removed products on subsequent synchronization")
+        void shouldOnlyWriteChangedProducts() {
+            stubCatalogue();
+            productMirrorSynchronizer.synchronize();
+
+            reset(productClient);
+            when(productClient.getAllProducts(2, 0)).thenReturn(page(2, 0,
+                    product(1L, "iPhone 15", 999.99, "2024-05-23T08:56:21.618Z"),
+                    product(2L, "Samsung Galaxy S24", 849.99, "2024-06-01T10:00:00.000Z")));
+
+            ProductMirrorService.SyncResult result = productMirrorSynchronizer.synchronize().orElseThrow();
+
+            assertThat(result).isEqualTo(new ProductMirrorService.SyncResult(0, 1, 1, 1));
+            assertThat(productRepository.findById(2L).orElseThrow().getPrice()).isEqualTo(849.99);
+            assertThat(productRepository.existsById(3L)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should insert a product once when a product added upstream shifts it onto the next page")
+        void shouldInsertShiftedProductOnce() {
+            when(productClient.getAllProducts(2, 0)).thenReturn(page(3, 0,
+                    product(1L, "iPhone 15", 999.99, "2024-05-23T08:56:21.618Z"),
+                    product(2L, "Samsung Galaxy S24", 899.99, "2024-05-23T08:56:21.618Z")));
+            when(productClient.getAllProducts(2, 2)).thenReturn(page(4, 2,
+                    product(2L, "Samsung Galaxy S24", 899.99, "2024-05-23T08:56:21.618Z"),
+                    product(3L, "Google Pixel 8", 699.99, "2024-05-23T08:56:21.618Z")));
+
+            ProductMirrorService.SyncResult result = productMirrorSynchronizer.synchronize().orElseThrow();
+
+            assertThat(result).isEqualTo(new ProductMirrorService.SyncResult(3, 0, 0, 0));
+            assertThat(productRepository.count()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should not delete a product skipped because a product removed upstream shifted it")
+        void shouldNotDeleteShiftedProduct() {
+            stubCatalogue();
+            productMirrorSynchronizer.synchronize();
+
+            reset(productClient);
+            when(productClient.getAllProducts(2, 0)).thenReturn(page(3, 0,
+                    product(1L, "iPhone 15", 999.99, "2024-05-23T08:56:21.618Z"),
+                    product(2L, "Samsung Galaxy S24", 899.99, "2024-05-23T08:56:21.618Z")));
+            when(productClient.getAllProducts(2, 2)).thenReturn(page(2, 2));
+
+            ProductMirrorService.SyncResult result = productMirrorSynchronizer.synchronize().orElseThrow();
+
+            assertThat(result).isEqualTo(new ProductMirrorService.SyncResult(0, 0, 0, 2));
+            assertThat(productRepository.existsById(3L)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should keep the current mirror when the upstream fails")
+        void shouldKeepMirrorWhenUpstreamFails() {
+            stubCatalogue();
+            productMirrorSynchronizer.synchronize();
+
+            reset(productClient);
+            when(productClient.getAllProducts(2, 0)).thenReturn(page(3, 0,
+                    product(1L, "iPhone 15", 999.99, "2024-05-23T08:56:21.618Z"),
+                    product(2L, "Samsung Galaxy S24", 899.99, "2024-05-23T08:56:21.618Z")));
+            when(productClient.getAllProducts(2, 2)).thenThrow(new ResourceAccessException("Connection refused"));
+
+            assertThatThrownBy(() -> productMirrorSynchronizer.synchronize())
+                    .isInstanceOf(ResourceAccessException.class);
+            assertThat(productRepository.count()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products served from the mirror")
+    class GetAllProductsFromMirrorTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return sorted and paginated products without calling DummyJSON")
+        void shouldReturnSortedAndPaginatedProductsWithoutCallingUpstream() {
+            stubCatalogue();
+            productMirrorSynchronizer.synchronize();
+            reset(productClient);
+
+            mockMvc.perform(get("/api/products")
+                            .param("sortBy", "price")
+                            .param("order", "desc")
+                            .param("limit", "2")
+                            .param("skip", "1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].id").value(2))
+                    .andExpect(jsonPath("$.products[1].id").value(3))
+                    .andExpect(jsonPath("$.products[0].tags", contains("phone", "mobile")))
+                    .andExpect(jsonPath("$.products[0].dimensions.width").value(7.1))
+                    .andExpect(jsonPath("$.products[0].reviews[0].reviewerName").value("Ana"))
+                    .andExpect(jsonPath("$.total").value(3))
+                    .andExpect(jsonPath("$.skip").value(1))
+                    .andExpect(jsonPath("$.limit").value(2));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return the whole catalogue when limit is 0")
+        void shouldReturnWholeCatalogueWhenLimitIsZero() {
+            stubCatalogue();
+            productMirrorSynchronizer.synchronize();
+            reset(productClient);
+
+            mockMvc.perform(get("/api/products")
+                            .param("limit", "0")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(3)))
+                    .andExpect(jsonPath("$.limit").value(3));
+
+            verifyNoInteractions(productClient);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/{productId} served from the mirror")
+    class GetProductByIdFromMirrorTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return product without calling DummyJSON")
+        void shouldReturnProductWithoutCallingUpstream() {
+            stubCatalogue();
+            productMirrorSynchronizer.synchronize();
+            reset(productClient);
+
+            mockMvc.perform(get("/api/products/3")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(3))
+                    .andExpect(jsonPath("$.title").value("Google Pixel 8"))
+                    .andExpect(jsonPath("$.meta.updatedAt").value("2024-05-23T08:56:21.618Z"));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 404 when product is not in the mirror")
+        void shouldReturn404WhenProductNotInMirror() {
+            stubCatalogue();
+            productMirrorSynchronizer.synchronize();
+            reset(productClient);
+
+            mockMvc.perform(get("/api/products/999")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.detail", containsString("999")));
+
+            verifyNoInteractions(productClient);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package hr.abysalto.hiring.mid.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import hr.abysalto.hiring.mid.cache.OffHeapProductTier;
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.controller.advice.StaleResponseBodyAdvice;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "test.caching.enabled=true",
+        "product.cache.off-heap.enabled=true",
+        "product.cache.off-heap.maximum-size=4MB",
+        "product.cache.product-by-id.maximum-weight=16KB",
+        "product.cache.product-by-id.refresh-after-write=2s",
+        "product.cache.product-by-id.expire-after-write=1h"
+})
+class ProductControllerOffHeapTest extends AbysaltoTestAbstract {
+
+    private static final long REFRESH_MILLIS = 2000;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private OffHeapProductTier offHeapTier;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @SneakyThrows
+    private ResultActions getProduct(long id) {
+        return mockMvc.perform(get("/api/products/" + id)
+                .with(authenticatedUser()));
+    }
+
+    /**
+     * Loads products of about 4KB each, more than the cache budget holds, and returns the first
+     * response of every product the cache moved to the off-heap tier, together with a weak reference
+     * to the cached instance.
+     */
+    @SneakyThrows
+    private Map<Long, Spilled> loadPastBudget() {
+        when(productClient.getProductById(anyLong())).thenAnswer(invocation -> ProductDto.builder()
+                .id(invocation.getArgument(0))
+                .title("Large product " + invocation.getArgument(0))
+                .category("smartphones")
+                .price(999.99)
+                .description("x".repeat(4000))
+                .build());
+
+        Map<Long, String> bodies = new LinkedHashMap<>();
+        Map<Long, WeakReference<Object>> instances = new LinkedHashMap<>();
+        for (long id = 1; id <= 8; id++) {
+            bodies.put(id, getProduct(id).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+            Object instance = lastKnownValues.get(CacheConfig.PRODUCT_BY_ID_CACHE, id);
+            if (instance != null) {
+                instances.put(id, new WeakReference<>(instance));
+            }
+        }
+        Cache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(CacheConfig.PRODUCT_BY_ID_CACHE))
+                .getNativeCache();
+        cache.cleanUp();
+
+        Map<Long, Spilled> spilled = new LinkedHashMap<>();
+        instances.forEach((id, instance) -> {
+            if (cache.getIfPresent(id) == null) {
+                spilled.put(id, new Spilled(bodies.get(id), instance));
+            }
+        });
+        assertThat(spilled).isNotEmpty();
+        return spilled;
+    }
+
+    @SneakyThrows
+    private static void awaitCollected(WeakReference<Object> instance) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (instance.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    private record Spilled(String body, WeakReference<Object> instance) {
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/{productId} with the off-heap tier enabled")
+    class OffHeapTierTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should keep an evicted product only off-heap and decode it back unchanged")
+        void shouldKeepEvictedProductOnlyOffHeap() {
+            Map<Long, Spilled> spilled = loadPastBudget();
+            long id = spilled.keySet().iterator().next();
+            Spilled product = spilled.get(id);
+
+            assertThat(lastKnownValues.<Object>get(CacheConfig.PRODUCT_BY_ID_CACHE, id)).isNull();
+            awaitCollected(product.instance());
+            assertThat(product.instance().get()).isNull();
+
+            getProduct(id)
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(product.body(), true));
+            verify(productClient, times(1)).getProductById(id);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should serve the off-heap copy marked stale when DummyJSON fails after its refresh interval")
+        void shouldServeOffHeapCopyStaleWhenUpstreamFails() {
+            Map<Long, Spilled> spilled = loadPastBudget();
+            long id = spilled.keySet().iterator().next();
+            Thread.sleep(REFRESH_MILLIS + 100);
+            when(productClient.getProductById(id)).thenThrow(new ResourceAccessException("Connection refused"));
+
+            getProduct(id)
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(StaleResponseBodyAdvice.WARNING_HEADER, StaleResponseBodyAdvice.STALE_WARNING))
+                    .andExpect(content().json(spilled.get(id).body(), true));
+            assertThat(offHeapTier.<Object>lastKnown(CacheConfig.PRODUCT_BY_ID_CACHE, id)).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package hr.abysalto.hiring.mid.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import hr.abysalto.hiring.mid.cache.CacheSnapshotFile;
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.service.ProductCacheSnapshotService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "test.caching.enabled=true",
+        "product.cache.persistent.enabled=true",
+        "product.cache.persistent.path=target/test-product-cache.snapshot",
+        "product.cache.product-by-id.refresh-after-write=10m",
+        "product.cache.product-by-id.expire-after-write=1h"
+})
+class ProductControllerPersistentCacheTest extends AbysaltoTestAbstract {
+
+    private static final Path SNAPSHOT = Path.of("target/test-product-cache.snapshot");
+    private static final Duration REFRESH_AFTER_WRITE = Duration.ofMinutes(10);
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofHours(1);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductCacheSnapshotService productCacheSnapshotService;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @SneakyThrows
+    private void restoreProduct(ProductDto product, Duration age) {
+        CacheSnapshotFile.write(SNAPSHOT, Instant.now(), List.of(new CacheSnapshotFile.Entry(
+                CacheConfig.PRODUCT_BY_ID_CACHE,
+                Instant.now().minus(age),
+                ByteBuffer.wrap(objectMapper.writeValueAsBytes(product.getId())),
+                ByteBuffer.wrap(objectMapper.writeValueAsBytes(product)))));
+        productCacheSnapshotService.restore();
+    }
+
+    private Cache<Object, Object> productCache() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfig.PRODUCT_BY_ID_CACHE)).getNativeCache();
+    }
+
+    @Nested
+    @DisplayName("Restoring the product caches from a snapshot")
+    class RestoreTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should expire a restored product after its original load time")
+        void shouldExpireRestoredProductAfterOriginalLoadTime() {
+            Duration age = Duration.ofMinutes(9);
+            restoreProduct(product(7L, "iPhone 15"), age);
+
+            mockMvc.perform(get("/api/products/7")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value("iPhone 15"));
+
+            Duration expiresAfter = productCache().policy().expireVariably().orElseThrow()
+                    .getExpiresAfter(7L).orElseThrow();
+            assertThat(expiresAfter).isLessThanOrEqualTo(EXPIRE_AFTER_WRITE.minus(age))
+                    .isGreaterThan(EXPIRE_AFTER_WRITE.minus(age).minusMinutes(1));
+            verify(productClient, never()).getProductById(7L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should refresh a restored product when it falls due, not a full interval after the restore")
+        void shouldRefreshRestoredProductWhenDue() {
+            when(productClient.getProductById(8L)).thenReturn(product(8L, "iPhone 15 Pro"));
+            restoreProduct(product(8L, "iPhone 15"), REFRESH_AFTER_WRITE.minusSeconds(1));
+
+            verify(productClient, never()).getProductById(8L);
+            verify(productClient, timeout(5000)).getProductById(8L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should refresh a restored product that is already due right away")
+        void shouldRefreshDueRestoredProductRightAway() {
+            when(productClient.getProductById(9L)).thenReturn(product(9L, "iPhone 15 Pro"));
+            restoreProduct(product(9L, "iPhone 15"), REFRESH_AFTER_WRITE.plusMinutes(1));
+
+            verify(productClient, timeout(2000)).getProductById(9L);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package hr.abysalto.hiring.mid.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.cache.CachedRepresentations;
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "test.caching.enabled=true",
+        "product.cache.serialized.enabled=true",
+        "product.cache.serialized.gzip=true"
+})
+class ProductControllerSerializedCacheTest extends AbysaltoTestAbstract {
+
+    @Autowired
+    private CachedRepresentations cachedRepresentations;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    private Object cachedProduct(long id) {
+        return cacheManager.getCache(CacheConfig.PRODUCT_BY_ID_CACHE).get(id).get();
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/{productId} with kept serialized JSON")
+    class GetProductByIdSerializedTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should write the kept JSON of a cached product")
+        void shouldWriteKeptJsonOfCachedProduct() {
+            when(productClient.getProductById(1L)).thenReturn(product(1L, "iPhone 15"));
+            mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk());
+            Object cached = cachedProduct(1L);
+            assertThat(cachedRepresentations.keptBytes()).isPositive();
+
+            byte[] body = mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                    .andExpect(jsonPath("$.title").value("iPhone 15"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertThat(body).isEqualTo(cachedRepresentations.json(cached));
+            verify(productClient, times(1)).getProductById(1L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should write the kept gzipped JSON when the client accepts gzip")
+        void shouldWriteGzippedJsonWhenClientAcceptsGzip() {
+            when(productClient.getProductById(2L)).thenReturn(product(2L, "Samsung Galaxy S24"));
+
+            byte[] body = mockMvc.perform(get("/api/products/2")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8))
+                        .isEqualTo(new String(cachedRepresentations.json(cachedProduct(2L)), StandardCharsets.UTF_8))
+                        .contains("\"title\":\"Samsung Galaxy S24\"");
+            }
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should tag the gzipped JSON differently from the identity JSON")
+        void shouldTagGzippedJsonDifferently() {
+            when(productClient.getProductById(5L)).thenReturn(product(5L, "Google Pixel 8"));
+
+            String identityTag = mockMvc.perform(get("/api/products/5")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            String gzipTag = mockMvc.perform(get("/api/products/5")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            assertThat(gzipTag).isEqualTo(CachedRepresentations.gzipEntityTag(identityTag)).isNotEqualTo(identityTag);
+            mockMvc.perform(get("/api/products/5")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .header(HttpHeaders.IF_NONE_MATCH, gzipTag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)));
+            mockMvc.perform(get("/api/products/5")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .header(HttpHeaders.IF_NONE_MATCH, identityTag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+            mockMvc.perform(get("/api/products/5")
+                            .header(HttpHeaders.IF_NONE_MATCH, identityTag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isNotModified());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should serialize a field projection instead of writing the kept JSON")
+        void shouldSerializeFieldProjection() {
+            when(productClient.getProductById(3L)).thenReturn(product(3L, "Google Pixel 8"));
+
+            mockMvc.perform(get("/api/products/3")
+                            .param("fields", "id,title")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(jsonPath("$.title").value("Google Pixel 8"))
+                    .andExpect(jsonPath("$.price").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should not keep the serialized JSON of a value that is not cached")
+        void shouldNotKeepJsonOfValueThatIsNotCached() {
+            CachedRepresentations representations = new CachedRepresentations(objectMapper, true, 16 * 1024,
+                    Clock.systemUTC());
+            ProductDto product = product(4L, "OnePlus 12");
+
+            assertThat(representations.keepsSerialized(product)).isFalse();
+            assertThat(new String(representations.json(product), StandardCharsets.UTF_8))
+                    .contains("\"title\":\"OnePlus 12\"");
+            assertThat(representations.keptBytes()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should keep serialized JSON only up to its own budget")
+        void shouldKeepSerializedJsonOnlyUpToItsBudget() {
+            long budget = 16 * 1024;
+            CachedRepresentations representations = new CachedRepresentations(objectMapper, true, budget,
+                    Clock.systemUTC());
+            List<ProductDto> products = new ArrayList<>();
+            for (long id = 1; id <= 50; id++) {
+                ProductDto product = product(id, "Product " + id);
+                product.setDescription("d".repeat(1000));
+                products.add(product);
+                representations.loaded(product);
+                representations.gzip(product);
+            }
+
+            assertThat(representations.keptBytes()).isPositive().isLessThanOrEqualTo(budget);
+            // Values whose bytes were dropped are serialized again
+            assertThat(new String(representations.json(products.get(0)), StandardCharsets.UTF_8))
+                    .contains("\"title\":\"Product 1\"");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package hr.abysalto.hiring.mid.controller;
+
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.dto.ProductDto;
+import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.service.CatalogueSnapshotService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "product.catalogue.snapshot.enabled=true",
+        "product.catalogue.snapshot.initial-delay=PT1H"
+})
+class ProductControllerSnapshotTest extends AbysaltoTestAbstract {
+
+    @Autowired
+    private CatalogueSnapshotService catalogueSnapshotService;
+
+    private static ProductDto product(long id, String title, double price, double rating) {
+        return ProductDto.builder()
+                .id(id)
+                .title(title)
+                .category("smartphones")
+                .price(price)
+                .rating(rating)
+                .build();
+    }
+
+    private void loadSnapshot(ProductDto... products) {
+        reset(productClient);
+        when(productClient.getAllProducts(0, 0, null, null)).thenReturn(ProductsResponse.builder()
+                .products(List.of(products))
+                .total(products.length)
+                .skip(0)
+                .limit(products.length)
+                .build());
+        catalogueSnapshotService.refresh();
+        reset(productClient);
+    }
+
+    @Nested
+    @DisplayName("GET /api/products served from the catalogue snapshot")
+    class GetAllProductsFromSnapshotTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return sorted and paginated products without calling DummyJSON")
+        void shouldReturnSortedAndPaginatedProductsWithoutCallingUpstream() {
+            loadSnapshot(
+                    product(1L, "iPhone 15", 999.99, 4.5),
+                    product(2L, "Samsung Galaxy S24", 899.99, 4.8),
+                    product(3L, "Google Pixel 8", 699.99, 4.2));
+
+            mockMvc.perform(get("/api/products")
+                            .param("sortBy", "price")
+                            .param("order", "desc")
+                            .param("limit", "2")
+                            .param("skip", "1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].id").value(2))
+                    .andExpect(jsonPath("$.products[1].id").value(3))
+                    .andExpect(jsonPath("$.total").value(3))
+                    .andExpect(jsonPath("$.skip").value(1))
+                    .andExpect(jsonPath("$.limit").value(2));
+
+            mockMvc.perform(get("/api/products")
+                            .param("sortBy", "rating")
+                            .param("order", "asc")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products[0].id").value(3))
+                    .andExpect(jsonPath("$.products[1].id").value(1))
+                    .andExpect(jsonPath("$.products[2].id").value(2));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should serve the new catalogue after a refresh")
+        void shouldServeNewCatalogueAfterRefresh() {
+            loadSnapshot(product(1L, "iPhone 15", 999.99, 4.5));
+            loadSnapshot(
+                    product(1L, "iPhone 15", 999.99, 4.5),
+                    product(4L, "Galaxy Z Flip", 799.99, 4.6));
+
+            mockMvc.perform(get("/api/products")
+                            .param("sortBy", "title")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].id").value(4))
+                    .andExpect(jsonPath("$.products[1].id").value(1))
+                    .andExpect(jsonPath("$.total").value(2));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should fall back to DummyJSON for unsupported sort fields")
+        void shouldFallBackToUpstreamForUnsupportedSortField() {
+            loadSnapshot(product(1L, "iPhone 15", 999.99, 4.5));
+            when(productClient.getAllProducts(30, 0, "returnPolicy", null)).thenReturn(ProductsResponse.builder()
+                    .products(List.of())
+                    .total(0)
+                    .skip(0)
+                    .limit(30)
+                    .build());
+
+            mockMvc.perform(get("/api/products")
+                            .param("sortBy", "returnPolicy")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk());
+
+            verify(productClient).getAllProducts(30, 0, "returnPolicy", null);
+        }
+    }
+}
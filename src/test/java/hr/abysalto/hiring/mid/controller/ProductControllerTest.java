@@ -1,29 +1,67 @@
 package hr.abysalto.hiring.mid.controller;
 
+import hr.abysalto.hiring.mid.client.ProductStreamClient;
 import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.controller.advice.StaleResponseBodyAdvice;
+import hr.abysalto.hiring.mid.controller.problemdetail.UpstreamUnavailableProblemDetail;
 import hr.abysalto.hiring.mid.dto.ProductDto;
 import hr.abysalto.hiring.mid.dto.ProductsResponse;
+import hr.abysalto.hiring.mid.service.CatalogueSnapshotService;
+import hr.abysalto.hiring.mid.service.ProductStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.SneakyThrows;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 class ProductControllerTest extends AbysaltoTestAbstract {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CatalogueSnapshotService catalogueSnapshotService;
+
+    @Autowired
+    private ProductStreamService productStreamService;
+
     private static final ProductDto SAMPLE_PRODUCT = ProductDto.builder()
             .id(1L)
             .title("iPhone 15")
@@ -150,6 +188,42 @@ class ProductControllerTest extends AbysaltoTestAbstract {
             verify(productClient, times(3)).getAllProducts(30, 0, null, null);
         }
 
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 304 for an unchanged product page")
+        void shouldReturn304ForUnchangedProductPage() {
+            when(productClient.getAllProducts(30, 0, null, null)).thenReturn(SAMPLE_PRODUCTS_RESPONSE);
+
+            String etag = mockMvc.perform(get("/api/products")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/api/products")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should project every listed product to the requested fields")
+        void shouldProjectListedProductsToRequestedFields() {
+            when(productClient.getAllProducts(30, 0, null, null)).thenReturn(SAMPLE_PRODUCTS_RESPONSE);
+
+            mockMvc.perform(get("/api/products")
+                            .param("fields", "id,rating")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products[0].id").value(1))
+                    .andExpect(jsonPath("$.products[0].rating").value(4.5))
+                    .andExpect(jsonPath("$.products[0].title").doesNotExist())
+                    .andExpect(jsonPath("$.total").value(1));
+        }
+
         @Test
         @SneakyThrows
         @DisplayName("Should return 500 when external service is unavailable")
@@ -238,6 +312,546 @@ class ProductControllerTest extends AbysaltoTestAbstract {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/products with filters")
+    class GetFilteredProductsTests {
+
+        private void loadCatalogue() {
+            List<ProductDto> products = List.of(
+                    ProductDto.builder().id(1L).title("iPhone 15").category("smartphones").brand("Apple")
+                            .price(999.99).availabilityStatus("In Stock").build(),
+                    ProductDto.builder().id(2L).title("Galaxy S24").category("smartphones").brand("Samsung")
+                            .price(899.99).availabilityStatus("Low Stock").build(),
+                    ProductDto.builder().id(3L).title("MacBook Air").category("laptops").brand("Apple")
+                            .price(1299.99).availabilityStatus("In Stock").build(),
+                    ProductDto.builder().id(4L).title("Galaxy Book").category("laptops").brand("Samsung")
+                            .price(799.99).availabilityStatus("In Stock").build());
+            when(productClient.getAllProducts(0, 0, null, null)).thenReturn(ProductsResponse.builder()
+                    .products(products)
+                    .total(products.size())
+                    .skip(0)
+                    .limit(products.size())
+                    .build());
+            catalogueSnapshotService.refresh();
+            reset(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should filter by category and price range with facet counts")
+        void shouldFilterByCategoryAndPriceRangeWithFacetCounts() {
+            loadCatalogue();
+
+            mockMvc.perform(get("/api/products")
+                            .param("category", "smartphones")
+                            .param("minPrice", "500")
+                            .param("maxPrice", "999.99")
+                            .param("sortBy", "price")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].id").value(2))
+                    .andExpect(jsonPath("$.products[1].id").value(1))
+                    .andExpect(jsonPath("$.total").value(2))
+                    .andExpect(jsonPath("$.facets.categories.smartphones").value(2))
+                    .andExpect(jsonPath("$.facets.categories.laptops").value(1))
+                    .andExpect(jsonPath("$.facets.brands.Apple").value(1))
+                    .andExpect(jsonPath("$.facets.brands.Samsung").value(1))
+                    .andExpect(jsonPath("$.facets.availabilityStatuses['In Stock']").value(1))
+                    .andExpect(jsonPath("$.facets.availabilityStatuses['Low Stock']").value(1));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should tag a filtered listing from its written body without caching it")
+        void shouldTagFilteredListingWithoutMaxAge() {
+            loadCatalogue();
+
+            String etag = mockMvc.perform(get("/api/products")
+                            .param("category", "smartphones")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, Matchers.startsWith("\"")))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=0")))
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/api/products")
+                            .param("category", "smartphones")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should combine multiple values of one filter")
+        void shouldCombineMultipleValuesOfOneFilter() {
+            loadCatalogue();
+
+            mockMvc.perform(get("/api/products")
+                            .param("brand", "Apple,Samsung")
+                            .param("availabilityStatus", "In Stock")
+                            .param("sortBy", "price")
+                            .param("order", "desc")
+                            .param("limit", "2")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].id").value(3))
+                    .andExpect(jsonPath("$.products[1].id").value(1))
+                    .andExpect(jsonPath("$.total").value(3));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return facets for the whole catalogue when requested without filters")
+        void shouldReturnFacetsWithoutFilters() {
+            loadCatalogue();
+
+            mockMvc.perform(get("/api/products")
+                            .param("facets", "true")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(4)))
+                    .andExpect(jsonPath("$.total").value(4))
+                    .andExpect(jsonPath("$.facets.categories.smartphones").value(2))
+                    .andExpect(jsonPath("$.facets.categories.laptops").value(2))
+                    .andExpect(jsonPath("$.facets.availabilityStatuses['In Stock']").value(3));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return no products for an unknown category")
+        void shouldReturnNoProductsForUnknownCategory() {
+            loadCatalogue();
+
+            mockMvc.perform(get("/api/products")
+                            .param("category", "groceries")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(0)))
+                    .andExpect(jsonPath("$.total").value(0))
+                    .andExpect(jsonPath("$.facets.categories.smartphones").value(2));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 400 when sorting filtered products by an unsupported field")
+        void shouldReturn400WhenSortingByUnsupportedField() {
+            mockMvc.perform(get("/api/products")
+                            .param("category", "smartphones")
+                            .param("sortBy", "returnPolicy")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.violations[0].propertyPath").value("sortBy"));
+
+            verifyNoInteractions(productClient);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/search")
+    class SearchProductsTests {
+
+        private void loadCatalogue() {
+            ProductDto galaxy = ProductDto.builder()
+                    .id(2L)
+                    .title("Samsung Galaxy S24")
+                    .description("Android smartphone with a great camera")
+                    .category("smartphones")
+                    .brand("Samsung")
+                    .tags(List.of("android", "camera"))
+                    .price(899.99)
+                    .build();
+            ProductDto charger = ProductDto.builder()
+                    .id(3L)
+                    .title("Wireless Charger")
+                    .description("Charges Apple and Samsung phones")
+                    .category("mobile-accessories")
+                    .brand("Belkin")
+                    .price(49.99)
+                    .build();
+            when(productClient.getAllProducts(0, 0, null, null)).thenReturn(ProductsResponse.builder()
+                    .products(List.of(SAMPLE_PRODUCT, galaxy, charger))
+                    .total(3)
+                    .skip(0)
+                    .limit(3)
+                    .build());
+            catalogueSnapshotService.refresh();
+            reset(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 401 when not authenticated")
+        void shouldReturn401WhenNotAuthenticated() {
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", "phone"))
+                    .andExpect(status().isUnauthorized());
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should rank title matches above description matches")
+        void shouldRankTitleMatchesAboveDescriptionMatches() {
+            loadCatalogue();
+
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", "samsung")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].id").value(2))
+                    .andExpect(jsonPath("$.products[1].id").value(3))
+                    .andExpect(jsonPath("$.total").value(2));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should require every word and match the last word as a prefix")
+        void shouldRequireEveryWordAndMatchLastWordAsPrefix() {
+            loadCatalogue();
+
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", "Apple smart")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(1)))
+                    .andExpect(jsonPath("$.products[0].id").value(1));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should index a product again when its title changed since the last refresh")
+        void shouldReindexChangedProduct() {
+            loadCatalogue();
+            ProductDto renamed = ProductDto.builder()
+                    .id(3L)
+                    .title("Magnetic Charger")
+                    .description("Charges Apple and Samsung phones")
+                    .category("mobile-accessories")
+                    .brand("Belkin")
+                    .price(49.99)
+                    .build();
+            when(productClient.getAllProducts(0, 0, null, null)).thenReturn(ProductsResponse.builder()
+                    .products(List.of(SAMPLE_PRODUCT, renamed))
+                    .total(2)
+                    .skip(0)
+                    .limit(2)
+                    .build());
+            catalogueSnapshotService.refresh();
+
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", "wireless")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(0)));
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", "samsung magn")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(1)))
+                    .andExpect(jsonPath("$.products[0].id").value(3));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should page through search results")
+        void shouldPageThroughSearchResults() {
+            loadCatalogue();
+
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", "samsung")
+                            .param("limit", "1")
+                            .param("skip", "1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(1)))
+                    .andExpect(jsonPath("$.products[0].id").value(3))
+                    .andExpect(jsonPath("$.total").value(2))
+                    .andExpect(jsonPath("$.skip").value(1))
+                    .andExpect(jsonPath("$.limit").value(1));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 400 when query is blank")
+        void shouldReturn400WhenQueryIsBlank() {
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", " ")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.violations[0].propertyPath").value("q"));
+
+            verifyNoInteractions(productClient);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/stream")
+    class StreamProductsTests {
+
+        private static List<ProductDto> products(long fromId, long toId) {
+            return LongStream.rangeClosed(fromId, toId)
+                    .mapToObj(id -> ProductDto.builder().id(id).title("Product " + id).price(9.99).build())
+                    .toList();
+        }
+
+        private void stubUpstreamPage(int limit, int skip, String sortBy, String order, List<ProductDto> products,
+                                      int total) {
+            ProductsResponse page = ProductsResponse.builder()
+                    .products(products)
+                    .total(total)
+                    .skip(skip)
+                    .limit(limit)
+                    .build();
+            // Like RestClient, an I/O error while reading the body is rethrown as ResourceAccessException
+            when(productStreamClient.getAllProducts(eq(limit), eq(skip), eq(sortBy), eq(order), any()))
+                    .thenAnswer(invocation -> {
+                        try {
+                            return invocation.<ProductStreamClient.BodyReader<?>>getArgument(4)
+                                    .read(new ByteArrayInputStream(objectMapper.writeValueAsBytes(page)));
+                        } catch (IOException e) {
+                            throw new ResourceAccessException("I/O error reading the products", e);
+                        }
+                    });
+        }
+
+        @SneakyThrows
+        private ResultActions performStream(MockHttpServletRequestBuilder requestBuilder) {
+            MvcResult result = mockMvc.perform(requestBuilder.with(authenticatedUser()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            return mockMvc.perform(asyncDispatch(result));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should stream all products by requesting upstream in chunks")
+        void shouldStreamAllProductsInChunks() {
+            stubUpstreamPage(100, 0, null, null, products(1, 100), 150);
+            stubUpstreamPage(100, 100, null, null, products(101, 150), 150);
+
+            performStream(get("/api/products/stream"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.products", hasSize(150)))
+                    .andExpect(jsonPath("$.products[0].id").value(1))
+                    .andExpect(jsonPath("$.products[149].id").value(150))
+                    .andExpect(jsonPath("$.products[149].title").value("Product 150"))
+                    .andExpect(jsonPath("$.total").value(150))
+                    .andExpect(jsonPath("$.skip").value(0))
+                    .andExpect(jsonPath("$.limit").value(150));
+
+            verify(productStreamClient, times(2)).getAllProducts(anyInt(), anyInt(), any(), any(), any());
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should stream the requested page with sorting")
+        void shouldStreamRequestedPageWithSorting() {
+            stubUpstreamPage(30, 5, "price", "desc", products(6, 35), 194);
+
+            performStream(get("/api/products/stream")
+                            .param("limit", "30")
+                            .param("skip", "5")
+                            .param("sortBy", "price")
+                            .param("order", "desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(30)))
+                    .andExpect(jsonPath("$.products[0].id").value(6))
+                    .andExpect(jsonPath("$.total").value(194))
+                    .andExpect(jsonPath("$.skip").value(5))
+                    .andExpect(jsonPath("$.limit").value(30));
+
+            verify(productStreamClient, times(1)).getAllProducts(anyInt(), anyInt(), any(), any(), any());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should stop streaming when upstream has no more products")
+        void shouldStopWhenUpstreamHasNoMoreProducts() {
+            stubUpstreamPage(100, 190, null, null, products(191, 194), 194);
+
+            performStream(get("/api/products/stream")
+                            .param("skip", "190"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(4)))
+                    .andExpect(jsonPath("$.total").value(194))
+                    .andExpect(jsonPath("$.limit").value(4));
+
+            verify(productStreamClient, times(1)).getAllProducts(anyInt(), anyInt(), any(), any(), any());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 400 when limit is negative")
+        void shouldReturn400WhenLimitIsNegative() {
+            mockMvc.perform(get("/api/products/stream")
+                            .param("limit", "-1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.violations[0].propertyPath").value("limit"));
+
+            verifyNoInteractions(productStreamClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 500 when upstream fails before anything was streamed")
+        void shouldReturn500WhenUpstreamFailsBeforeStreaming() {
+            when(productStreamClient.getAllProducts(anyInt(), anyInt(), any(), any(), any()))
+                    .thenThrow(new ResourceAccessException("Connection refused"));
+
+            performStream(get("/api/products/stream"))
+                    .andExpect(status().isInternalServerError());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should end the stream with an error when upstream fails after the first chunk")
+        void shouldEndStreamWithErrorWhenUpstreamFailsLater() {
+            stubUpstreamPage(100, 0, null, null, products(1, 100), 150);
+            when(productStreamClient.getAllProducts(eq(100), eq(100), any(), any(), any()))
+                    .thenThrow(new ResourceAccessException("Connection reset"));
+
+            performStream(get("/api/products/stream"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(100)))
+                    .andExpect(jsonPath("$.error", containsString("incomplete")))
+                    .andExpect(jsonPath("$.total").value(150))
+                    .andExpect(jsonPath("$.limit").value(100));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should not count clients disconnecting mid-stream as upstream failures")
+        void shouldNotCountClientDisconnectsAsUpstreamFailures() {
+            stubUpstreamPage(100, 0, null, null, products(1, 100), 150);
+            OutputStream disconnectedClient = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Broken pipe");
+                }
+            };
+
+            for (int i = 0; i < 10; i++) {
+                StreamingResponseBody body = productStreamService.streamProducts(0, 0, null, null);
+                assertThatThrownBy(() -> body.writeTo(disconnectedClient)).isInstanceOf(IOException.class);
+            }
+
+            assertThat(dummyJsonCircuitBreaker.isOpen()).isFalse();
+            verify(productStreamClient, times(10)).getAllProducts(eq(100), eq(0), any(), any(), any());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should not have an error field in a complete stream")
+        void shouldNotHaveErrorFieldInCompleteStream() {
+            stubUpstreamPage(100, 190, null, null, products(191, 194), 194);
+
+            performStream(get("/api/products/stream")
+                            .param("skip", "190"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.error").doesNotExist());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/batch")
+    class GetProductsByIdsTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 401 when not authenticated")
+        void shouldReturn401WhenNotAuthenticated() {
+            mockMvc.perform(get("/api/products/batch")
+                            .param("ids", "1,2"))
+                    .andExpect(status().isUnauthorized());
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return products in requested order and report missing ids")
+        void shouldReturnProductsInRequestedOrderAndReportMissingIds() {
+            ProductDto anotherProduct = ProductDto.builder()
+                    .id(2L)
+                    .title("Samsung Galaxy S24")
+                    .price(899.99)
+                    .build();
+
+            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+            when(productClient.getProductById(2L)).thenReturn(anotherProduct);
+            when(productClient.getProductById(999L))
+                    .thenThrow(HttpClientErrorException.create(
+                            HttpStatus.NOT_FOUND,
+                            "Not Found",
+                            HttpHeaders.EMPTY,
+                            null,
+                            null));
+
+            mockMvc.perform(get("/api/products/batch")
+                            .param("ids", "2,999,1,2")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].id").value(2))
+                    .andExpect(jsonPath("$.products[1].id").value(1))
+                    .andExpect(jsonPath("$.notFound", hasSize(1)))
+                    .andExpect(jsonPath("$.notFound[0]").value(999));
+
+            verify(productClient, times(1)).getProductById(1L);
+            verify(productClient, times(1)).getProductById(2L);
+            verify(productClient, times(1)).getProductById(999L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 400 when too many ids are requested")
+        void shouldReturn400WhenTooManyIdsRequested() {
+            String ids = String.join(",", LongStream.rangeClosed(1, 101)
+                    .mapToObj(String::valueOf)
+                    .toList());
+
+            mockMvc.perform(get("/api/products/batch")
+                            .param("ids", ids)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.type").value("https://api.example.com/problems/validation-failure-problem-detail"))
+                    .andExpect(jsonPath("$.violations[0].propertyPath").value("ids"));
+
+            verifyNoInteractions(productClient);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 500 when external service is unavailable")
+        void shouldReturn500WhenExternalServiceUnavailable() {
+            when(productClient.getProductById(anyLong()))
+                    .thenThrow(new ResourceAccessException("Connection refused"));
+
+            mockMvc.perform(get("/api/products/batch")
+                            .param("ids", "1,2")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isInternalServerError())
+                    .andExpect(jsonPath("$.type").value("https://api.example.com/problems/technical-failure-problem-detail"));
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/products/{productId}")
     class GetProductByIdTests {
@@ -271,6 +885,118 @@ class ProductControllerTest extends AbysaltoTestAbstract {
             verify(productClient, times(1)).getProductById(1L);
         }
 
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return only requested fields")
+        void shouldReturnOnlyRequestedFields() {
+            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+
+            mockMvc.perform(get("/api/products/1")
+                            .param("fields", "id, title,thumbnail")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(1))
+                    .andExpect(jsonPath("$.title").value("iPhone 15"))
+                    .andExpect(jsonPath("$.thumbnail").value("https://example.com/iphone15.jpg"))
+                    .andExpect(jsonPath("$.price").doesNotExist())
+                    .andExpect(jsonPath("$.description").doesNotExist());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 400 when unknown fields are requested")
+        void shouldReturn400WhenUnknownFieldsRequested() {
+            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+
+            mockMvc.perform(get("/api/products/1")
+                            .param("fields", "id,colour")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.violations[0].propertyPath").value("fields"))
+                    .andExpect(jsonPath("$.violations[0].message", containsString("colour")));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return ETag and Cache-Control headers")
+        void shouldReturnETagAndCacheControlHeaders() {
+            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+
+            mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, Matchers.startsWith("\"")))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=")))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("private")));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 304 without body when ETag matches")
+        void shouldReturn304WhenETagMatches() {
+            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+
+            String etag = mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/api/products/1")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should return 200 when product changed since ETag was issued")
+        void shouldReturn200WhenProductChanged() {
+            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+
+            String etag = mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(HttpHeaders.ETAG);
+
+            when(productClient.getProductById(1L)).thenReturn(ProductDto.builder()
+                    .id(1L)
+                    .title("iPhone 15")
+                    .price(899.99)
+                    .build());
+
+            mockMvc.perform(get("/api/products/1")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)))
+                    .andExpect(jsonPath("$.price").value(899.99));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should use a different ETag for a field projection")
+        void shouldUseDifferentETagForFieldProjection() {
+            when(productClient.getProductById(1L)).thenReturn(SAMPLE_PRODUCT);
+
+            String etag = mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/api/products/1")
+                            .param("fields", "id,title")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag)
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+        }
+
         @Test
         @SneakyThrows
         @DisplayName("Should return 404 when product not found")
@@ -313,6 +1039,48 @@ class ProductControllerTest extends AbysaltoTestAbstract {
             verify(productClient, times(2)).getProductById(1L);
         }
 
+        @Test
+        @SneakyThrows
+        @DisplayName("Should call external service once for concurrent requests of the same product")
+        void shouldCallExternalServiceOnceForConcurrentRequests() {
+            Counter merged = meterRegistry.counter("product.upstream.singleflight.merged", "operation", "getProductById");
+            double mergedBefore = merged.count();
+            CountDownLatch upstreamCalled = new CountDownLatch(1);
+            CountDownLatch releaseUpstream = new CountDownLatch(1);
+
+            when(productClient.getProductById(1L)).thenAnswer(invocation -> {
+                upstreamCalled.countDown();
+                releaseUpstream.await(5, TimeUnit.SECONDS);
+                return SAMPLE_PRODUCT;
+            });
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Callable<Integer> request = () -> mockMvc.perform(get("/api/products/1")
+                                .with(authenticatedUser()))
+                        .andReturn().getResponse().getStatus();
+
+                Future<Integer> first = executor.submit(request);
+                assertThat(upstreamCalled.await(5, TimeUnit.SECONDS)).isTrue();
+                Future<Integer> second = executor.submit(request);
+
+                long deadline = System.currentTimeMillis() + 5000;
+                while (merged.count() == mergedBefore && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                releaseUpstream.countDown();
+
+                assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+                assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+            } finally {
+                releaseUpstream.countDown();
+                executor.shutdownNow();
+            }
+
+            assertThat(merged.count()).isEqualTo(mergedBefore + 1);
+            verify(productClient, times(1)).getProductById(1L);
+        }
+
         @Test
         @SneakyThrows
         @DisplayName("Should return different products for different IDs")
@@ -372,5 +1140,109 @@ class ProductControllerTest extends AbysaltoTestAbstract {
                     .andExpect(status().isInternalServerError());
         }
     }
-}
 
+    @Nested
+    @DisplayName("DummyJSON unavailable")
+    class UpstreamUnavailableTests {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should serve the last known product marked stale and revalidate it in the background")
+        void shouldServeStaleProductAndRevalidate() {
+            when(productClient.getProductById(1L))
+                    .thenReturn(SAMPLE_PRODUCT)
+                    .thenThrow(new ResourceAccessException("Connection refused"))
+                    .thenReturn(SAMPLE_PRODUCT);
+
+            mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(StaleResponseBodyAdvice.WARNING_HEADER));
+
+            mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(StaleResponseBodyAdvice.WARNING_HEADER, StaleResponseBodyAdvice.STALE_WARNING))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=0")))
+                    .andExpect(jsonPath("$.id").value(1))
+                    .andExpect(jsonPath("$.title").value("iPhone 15"));
+
+            verify(productClient, timeout(2000).times(3)).getProductById(1L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should serve the last known product page marked stale when DummyJSON fails")
+        void shouldServeStaleProductPage() {
+            when(productClient.getAllProducts(30, 0, null, null))
+                    .thenReturn(SAMPLE_PRODUCTS_RESPONSE)
+                    .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+            mockMvc.perform(get("/api/products")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(StaleResponseBodyAdvice.WARNING_HEADER));
+
+            mockMvc.perform(get("/api/products")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(StaleResponseBodyAdvice.WARNING_HEADER, StaleResponseBodyAdvice.STALE_WARNING))
+                    .andExpect(jsonPath("$.products", hasSize(1)))
+                    .andExpect(jsonPath("$.total").value(1));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should not serve a stale product after DummyJSON reported it as removed")
+        void shouldNotServeStaleProductAfterNotFound() {
+            when(productClient.getProductById(1L))
+                    .thenReturn(SAMPLE_PRODUCT)
+                    .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null))
+                    .thenThrow(new ResourceAccessException("Connection refused"));
+
+            mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/products/1")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should open the circuit after consecutive failures and answer 503 without calling DummyJSON")
+        void shouldOpenCircuitAfterConsecutiveFailures() {
+            when(productClient.getProductById(7L)).thenThrow(new ResourceAccessException("Read timed out"));
+
+            for (int i = 0; i < 5; i++) {
+                mockMvc.perform(get("/api/products/7")
+                                .with(authenticatedUser()))
+                        .andExpect(status().isInternalServerError());
+            }
+
+            mockMvc.perform(get("/api/products/7")
+                            .with(authenticatedUser()))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                    .andExpect(jsonPath("$.title").value(UpstreamUnavailableProblemDetail.TITLE));
+
+            verify(productClient, times(5)).getProductById(7L);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("Should not count 404 answers as failures")
+        void shouldNotCountNotFoundAsFailure() {
+            when(productClient.getProductById(anyLong()))
+                    .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+            for (long id = 900; id < 910; id++) {
+                mockMvc.perform(get("/api/products/" + id)
+                                .with(authenticatedUser()))
+                        .andExpect(status().isNotFound());
+            }
+
+            assertThat(dummyJsonCircuitBreaker.isOpen()).isFalse();
+        }
+    }
+}
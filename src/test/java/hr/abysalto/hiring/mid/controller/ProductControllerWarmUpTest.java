@@ -0,0 +1,91 @@
+package hr.abysalto.hiring.mid.controller;
+
+import hr.abysalto.hiring.mid.configuration.AbysaltoTestAbstract;
+import hr.abysalto.hiring.mid.repository.ProductUserCount;
+import hr.abysalto.hiring.mid.repository.entity.CartItem;
+import hr.abysalto.hiring.mid.repository.entity.Favourite;
+import hr.abysalto.hiring.mid.repository.entity.User;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {
+        "product.cache.warm-up.enabled=true",
+        "product.cache.warm-up.product-ids=1,2",
+        "product.cache.warm-up.popular-products=10",
+        "product.cache.warm-up.pages=1",
+        "product.cache.warm-up.page-size=30",
+        "product.cache.warm-up.concurrency=1"
+})
+class ProductControllerWarmUpTest extends AbysaltoTestAbstract {
+
+    private Long saveUser(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .role("USER")
+                .enabled(true)
+                .build()).getId();
+    }
+
+    @Nested
+    @DisplayName("Product cache warm-up")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    class WarmUpTests {
+
+        // Runs first, before the upstream mock is reset for the first time
+        @Test
+        @Order(1)
+        @DisplayName("Should load configured products and the first listing pages on startup")
+        void shouldLoadConfiguredProductsAndPagesOnStartup() {
+            verify(productClient).getProductById(1L);
+            verify(productClient).getProductById(2L);
+            verify(productClient).getAllProducts();
+            verify(productClient).getAllProducts(eq(30), eq(0), isNull(), isNull());
+        }
+
+        @Test
+        @Order(2)
+        @SneakyThrows
+        @DisplayName("Should report readiness without authentication once warm-up finished")
+        void shouldReportReadinessAfterWarmUp() {
+            mockMvc.perform(get("/actuator/health/readiness"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("UP"));
+        }
+
+        @Test
+        @Order(3)
+        @DisplayName("Should rank products by the number of users having them in favourites")
+        void shouldRankProductsByNumberOfUsers() {
+            Long first = saveUser("first");
+            Long second = saveUser("second");
+            favouriteRepository.save(Favourite.builder().userId(first).productId(5L).build());
+            favouriteRepository.save(Favourite.builder().userId(second).productId(5L).build());
+            favouriteRepository.save(Favourite.builder().userId(first).productId(7L).build());
+            cartItemRepository.save(CartItem.builder().userId(first).productId(9L).quantity(3).build());
+
+            assertThat(favouriteRepository.findMostPopularProducts(10))
+                    .containsExactly(new ProductUserCount(5L, 2L), new ProductUserCount(7L, 1L));
+            assertThat(favouriteRepository.findMostPopularProducts(1))
+                    .containsExactly(new ProductUserCount(5L, 2L));
+            assertThat(cartItemRepository.findMostPopularProducts(10))
+                    .isEqualTo(List.of(new ProductUserCount(9L, 1L)));
+        }
+    }
+}